@@ -0,0 +1,63 @@
+package tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import tracker.controllers.InMemoryTaskManager;
+import tracker.model.Task;
+import tracker.store.BTreeTaskStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Открытие доски в BTreeTaskStore при куче в 64 МБ. Записи остаются на диске, но индексы менеджера
+// растут с размером доски, поэтому при миллионе задач такая куча уже не помещает доску.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx64m"})
+public class BTreeStoreLoadBenchmark {
+    private static final int BATCH_SIZE = 10_000;
+    @Param({"100000", "200000"})
+    private int boardSize;
+    private File file;
+
+    // Доска заполняется пакетами, чтобы в куче не оказались все задачи сразу
+    @Setup(Level.Trial)
+    public void createFile() throws IOException {
+        file = File.createTempFile("kanban-benchmark", ".db");
+        if (!file.delete()) {
+            throw new IOException("Не удалось удалить временный файл '" + file.getAbsolutePath() + "'");
+        }
+        InMemoryTaskManager taskManager = new InMemoryTaskManager(new BTreeTaskStore(file), Boards.HORIZON,
+                Boards.CLOCK);
+        for (int from = 0; from < boardSize; from += BATCH_SIZE) {
+            List<Task> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = from; i < Math.min(boardSize, from + BATCH_SIZE); i++) {
+                batch.add(new Task("Задача" + i, "Задача доски #" + i, Boards.slot(i).format(Task.DATE_FORMATTER),
+                        Boards.TASK_MINUTES));
+            }
+            taskManager.addAll(batch);
+        }
+        taskManager.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() {
+        if (!file.delete()) {
+            System.out.println("Не удалось удалить временный файл '" + file.getAbsolutePath() + "'");
+        }
+    }
+
+    @Benchmark
+    public int openBoard() {
+        InMemoryTaskManager taskManager = new InMemoryTaskManager(new BTreeTaskStore(file), Boards.HORIZON,
+                Boards.CLOCK);
+        int size = taskManager.getPrioritizedTasks(Boards.slot(0), Boards.slot(100), 0).size();
+        taskManager.close();
+        return size;
+    }
+}
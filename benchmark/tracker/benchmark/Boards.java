@@ -0,0 +1,49 @@
+package tracker.benchmark;
+
+import tracker.controllers.TaskManager;
+import tracker.model.Epic;
+import tracker.model.Subtask;
+import tracker.model.Task;
+
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+
+// Доска заданного размера: каждый пятый элемент - подзадача одного из эпиков по 50 подзадач,
+// остальные - задачи. Все элементы идут подряд с шагом SLOT_MINUTES и не пересекаются.
+final class Boards {
+    static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 0, 0);
+    static final int SLOT_MINUTES = 10;
+    static final int TASK_MINUTES = 5;
+    // Миллион элементов по 10 минут занимает около 19 лет
+    static final Period HORIZON = Period.ofYears(100);
+    static final Clock CLOCK = Clock.fixed(START.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    private Boards() {
+    }
+
+    static void fill(TaskManager taskManager, int size) {
+        int epicsCount = Math.max(1, size / 250);
+        List<Epic> epics = new ArrayList<>(epicsCount);
+        for (int i = 0; i < epicsCount; i++) {
+            epics.add(new Epic("Эпик" + i, "Эпик доски #" + i));
+        }
+        taskManager.addAll(epics);
+        List<Task> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String startTime = slot(i).format(Task.DATE_FORMATTER);
+            if (i % 5 == 4) {
+                int epicId = epics.get((i / 5) % epicsCount).getId();
+                items.add(new Subtask("Подзадача" + i, "Подзадача доски #" + i, epicId, startTime, TASK_MINUTES));
+            } else {
+                items.add(new Task("Задача" + i, "Задача доски #" + i, startTime, TASK_MINUTES));
+            }
+        }
+        taskManager.addAll(items);
+    }
+
+    // Начало i-го слота доски; слоты с индексом >= size свободны
+    static LocalDateTime slot(long index) {
+        return START.plusMinutes(index * SLOT_MINUTES);
+    }
+}
@@ -0,0 +1,118 @@
+package tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import tracker.controllers.ConcurrentTaskManager;
+import tracker.controllers.InMemoryTaskManager;
+import tracker.controllers.TaskManager;
+import tracker.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Чтение из нескольких потоков; MONITOR - InMemoryTaskManager под одним монитором для сравнения
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ConcurrentTaskManagerBenchmark {
+    @Param({"1000", "100000"})
+    private int boardSize;
+    @Param({"READ_WRITE_LOCK", "MONITOR"})
+    private String locking;
+    private TaskManager taskManager;
+    private Object monitor;
+    private List<Task> tasks;
+
+    @Setup(Level.Trial)
+    public void createBoard() {
+        if (locking.equals("MONITOR")) {
+            taskManager = new InMemoryTaskManager(Boards.HORIZON, Boards.CLOCK);
+            monitor = new Object();
+        } else {
+            taskManager = new ConcurrentTaskManager(Boards.HORIZON, Boards.CLOCK);
+        }
+        Boards.fill(taskManager, boardSize);
+        tasks = taskManager.getTasks();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<Task> readPrioritizedTasksInRange() {
+        return prioritizedTasksInRange();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<LocalDateTime> readFreeSlot() {
+        return freeSlot();
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public List<Task> readWhileUpdating() {
+        return prioritizedTasksInRange();
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void updateWhileReading() {
+        Task task = tasks.get(ThreadLocalRandom.current().nextInt(tasks.size()));
+        Task update = new Task(task.getName(), task.getDescription(),
+                task.getStartTime().get().format(Task.DATE_FORMATTER), Boards.TASK_MINUTES);
+        call(() -> taskManager.updateTask(task.getId(), update));
+    }
+
+    // Свободный слот ищется от начала случайного занятого слота доски
+    @Benchmark
+    @Group("placeWhileReading")
+    @GroupThreads(3)
+    public Optional<LocalDateTime> findFreeSlotWhilePlacing() {
+        return freeSlot();
+    }
+
+    // Размер доски не меняется: добавленная за доской задача сразу удаляется
+    @Benchmark
+    @Group("placeWhileReading")
+    @GroupThreads(1)
+    public void addAndDeleteWhileReading() {
+        Task task = new Task("Новая задача", "Задача за пределами доски",
+                Boards.slot(boardSize + 1).format(Task.DATE_FORMATTER), Boards.TASK_MINUTES);
+        call(() -> taskManager.addTask(task));
+        call(() -> taskManager.deleteTask(task.getId()));
+    }
+
+    private List<Task> prioritizedTasksInRange() {
+        int from = ThreadLocalRandom.current().nextInt(boardSize);
+        return call(() -> taskManager.getPrioritizedTasks(Boards.slot(from), Boards.slot(from + 100), 0));
+    }
+
+    private Optional<LocalDateTime> freeSlot() {
+        int from = ThreadLocalRandom.current().nextInt(boardSize);
+        return call(() -> taskManager.findFreeSlot(Duration.ofMinutes(Boards.TASK_MINUTES), Boards.slot(from)));
+    }
+
+    private <T> T call(Supplier<T> action) {
+        if (monitor == null) {
+            return action.get();
+        }
+        synchronized (monitor) {
+            return action.get();
+        }
+    }
+
+    private void call(Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+}
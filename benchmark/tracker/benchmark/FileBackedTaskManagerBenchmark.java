@@ -0,0 +1,82 @@
+package tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import tracker.controllers.FileBackedTaskManager;
+import tracker.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FileBackedTaskManagerBenchmark {
+    // Режим сохранения вместе с форматом снимка. Файл по страницам формат снимка не использует,
+    // поэтому для SEGMENTED вариант один.
+    public enum Layout {
+        SNAPSHOT_CSV(FileBackedTaskManager.SaveMode.SNAPSHOT, FileBackedTaskManager.SnapshotFormat.CSV),
+        SNAPSHOT_BINARY(FileBackedTaskManager.SaveMode.SNAPSHOT, FileBackedTaskManager.SnapshotFormat.BINARY),
+        JOURNAL_CSV(FileBackedTaskManager.SaveMode.JOURNAL, FileBackedTaskManager.SnapshotFormat.CSV),
+        JOURNAL_BINARY(FileBackedTaskManager.SaveMode.JOURNAL, FileBackedTaskManager.SnapshotFormat.BINARY),
+        SEGMENTED(FileBackedTaskManager.SaveMode.SEGMENTED, FileBackedTaskManager.SnapshotFormat.CSV);
+
+        private final FileBackedTaskManager.SaveMode saveMode;
+        private final FileBackedTaskManager.SnapshotFormat snapshotFormat;
+
+        Layout(FileBackedTaskManager.SaveMode saveMode, FileBackedTaskManager.SnapshotFormat snapshotFormat) {
+            this.saveMode = saveMode;
+            this.snapshotFormat = snapshotFormat;
+        }
+    }
+
+    @Param({"1000", "100000", "1000000"})
+    private int boardSize;
+    @Param({"SNAPSHOT_CSV", "SNAPSHOT_BINARY", "JOURNAL_CSV", "JOURNAL_BINARY", "SEGMENTED"})
+    private Layout layout;
+    private FileBackedTaskManager.WriteOptions writeOptions;
+    private File file;
+    private FileBackedTaskManager taskManager;
+    private List<Task> tasks;
+
+    @Setup(Level.Trial)
+    public void createBoard() throws IOException {
+        file = File.createTempFile("kanban-benchmark", ".csv");
+        writeOptions = FileBackedTaskManager.WriteOptions.SYNCHRONOUS.withSnapshotFormat(layout.snapshotFormat);
+        taskManager = new FileBackedTaskManager(file, Boards.HORIZON, Boards.CLOCK, layout.saveMode, writeOptions);
+        Boards.fill(taskManager, boardSize);
+        tasks = taskManager.getTasks();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() {
+        taskManager.close();
+        if (!taskManager.getJournalFile().delete() && taskManager.getJournalFile().exists()) {
+            System.out.println("Не удалось удалить журнал '" + taskManager.getJournalFile().getAbsolutePath() + "'");
+        }
+        if (!file.delete()) {
+            System.out.println("Не удалось удалить временный файл '" + file.getAbsolutePath() + "'");
+        }
+    }
+
+    // save() закрыт, поэтому сохранение измеряется через изменение, которое всегда сохраняет доску
+    @Benchmark
+    public void updateAndSave() {
+        Task task = tasks.get(ThreadLocalRandom.current().nextInt(tasks.size()));
+        Task update = new Task(task.getName(), task.getDescription(),
+                task.getStartTime().get().format(Task.DATE_FORMATTER), Boards.TASK_MINUTES);
+        taskManager.updateTask(task.getId(), update);
+    }
+
+    @Benchmark
+    public FileBackedTaskManager loadFromFile() {
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, layout.saveMode, writeOptions);
+        loaded.close();
+        return loaded;
+    }
+}
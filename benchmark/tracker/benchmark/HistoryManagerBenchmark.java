@@ -0,0 +1,43 @@
+package tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import tracker.history.InMemoryHistoryManager;
+import tracker.model.Task;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class HistoryManagerBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int boardSize;
+    private InMemoryHistoryManager historyManager;
+    private Task[] tasks;
+
+    @Setup(Level.Trial)
+    public void createHistory() {
+        historyManager = new InMemoryHistoryManager();
+        tasks = new Task[boardSize];
+        for (int i = 0; i < boardSize; i++) {
+            tasks[i] = new Task("Задача" + i, "Задача истории #" + i, i + 1);
+            historyManager.add(tasks[i]);
+        }
+    }
+
+    // Повторный просмотр переносит задачу в конец истории, размер истории не меняется
+    @Benchmark
+    public void add() {
+        historyManager.add(tasks[ThreadLocalRandom.current().nextInt(boardSize)]);
+    }
+
+    @Benchmark
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+}
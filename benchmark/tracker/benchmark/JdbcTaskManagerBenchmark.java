@@ -0,0 +1,104 @@
+package tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import tracker.controllers.FileBackedTaskManager;
+import tracker.controllers.TaskManager;
+import tracker.controllers.JdbcTaskManager;
+import tracker.model.Epic;
+import tracker.model.Subtask;
+import tracker.model.Task;
+import tracker.store.JdbcTaskStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Менеджер на встроенной базе H2 в сравнении с FileBackedTaskManager (снимок по страницам); драйвер H2 нужен в lib/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class JdbcTaskManagerBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int boardSize;
+    @Param({"FILE", "JDBC"})
+    private String backend;
+    private File file;
+    private String url;
+    private FileBackedTaskManager fileManager;
+    private JdbcTaskManager jdbcManager;
+    private List<Task> tasks;
+    private List<Epic> epics;
+
+    @Setup(Level.Trial)
+    public void createBoard() throws IOException {
+        file = File.createTempFile("kanban-benchmark", backend.equals("JDBC") ? ".mv.db" : ".csv");
+        if (backend.equals("JDBC")) {
+            url = "jdbc:h2:file:" + file.getAbsolutePath().replaceFirst("\\.mv\\.db$", "");
+            jdbcManager = new JdbcTaskManager(new JdbcTaskStore(url), Boards.HORIZON, Boards.CLOCK);
+            Boards.fill(jdbcManager, boardSize);
+        } else {
+            fileManager = new FileBackedTaskManager(file, Boards.HORIZON, Boards.CLOCK,
+                    FileBackedTaskManager.SaveMode.SEGMENTED);
+            Boards.fill(fileManager, boardSize);
+        }
+        tasks = manager().getTasks();
+        epics = manager().getEpics();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() {
+        if (jdbcManager != null) {
+            jdbcManager.close();
+        }
+        if (fileManager != null) {
+            fileManager.close();
+        }
+        if (!file.delete()) {
+            System.out.println("Не удалось удалить временный файл '" + file.getAbsolutePath() + "'");
+        }
+    }
+
+    @Benchmark
+    public void updateAndSave() {
+        Task task = tasks.get(ThreadLocalRandom.current().nextInt(tasks.size()));
+        Task update = new Task(task.getName(), task.getDescription(),
+                task.getStartTime().get().format(Task.DATE_FORMATTER), Boards.TASK_MINUTES);
+        manager().updateTask(task.getId(), update);
+    }
+
+    @Benchmark
+    public List<Task> getPrioritizedTasksInRange() {
+        int from = ThreadLocalRandom.current().nextInt(boardSize);
+        return manager().getPrioritizedTasks(Boards.slot(from), Boards.slot(from + 100), 0);
+    }
+
+    @Benchmark
+    public Map<Integer, Subtask> getEpicSubtasks() {
+        return manager().getEpicSubtasks(epics.get(ThreadLocalRandom.current().nextInt(epics.size())).getId());
+    }
+
+    // Менеджер закрывается сразу после загрузки, чтобы итерации не копили открытые сессии и файлы
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public TaskManager load() {
+        if (backend.equals("JDBC")) {
+            JdbcTaskManager loaded = new JdbcTaskManager(new JdbcTaskStore(url), Boards.HORIZON, Boards.CLOCK);
+            loaded.close();
+            return loaded;
+        }
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file,
+                FileBackedTaskManager.SaveMode.SEGMENTED);
+        loaded.close();
+        return loaded;
+    }
+
+    private TaskManager manager() {
+        return jdbcManager != null ? jdbcManager : fileManager;
+    }
+}
@@ -0,0 +1,47 @@
+package tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import tracker.controllers.FileBackedTaskManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Загрузка снимка CSV с разным числом потоков; при parallelism больше числа ядер ускорения не будет
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ParallelLoadBenchmark {
+    @Param({"100000", "1000000"})
+    private int boardSize;
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+    private File file;
+
+    @Setup(Level.Trial)
+    public void createFile() throws IOException {
+        file = File.createTempFile("kanban-benchmark", ".csv");
+        FileBackedTaskManager taskManager = new FileBackedTaskManager(file, Boards.HORIZON, Boards.CLOCK,
+                FileBackedTaskManager.SaveMode.SNAPSHOT);
+        Boards.fill(taskManager, boardSize);
+        taskManager.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() {
+        if (!file.delete()) {
+            System.out.println("Не удалось удалить временный файл '" + file.getAbsolutePath() + "'");
+        }
+    }
+
+    @Benchmark
+    public FileBackedTaskManager loadFromFile() {
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file,
+                FileBackedTaskManager.SaveMode.SNAPSHOT, FileBackedTaskManager.WriteOptions.SYNCHRONOUS, parallelism);
+        loaded.close();
+        return loaded;
+    }
+}
@@ -0,0 +1,87 @@
+package tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import tracker.controllers.FileBackedTaskManager;
+import tracker.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Сохранение и загрузка доски, разложенной по shards файлам; файлы пишутся и читаются в пуле
+// из min(shards, число ядер) потоков, поэтому без нескольких ядер ускорение будет только от меньшей перезаписи
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ShardedPersistenceBenchmark {
+    @Param({"100000", "1000000"})
+    private int boardSize;
+    @Param({"1", "2", "4", "8"})
+    private int shards;
+    private FileBackedTaskManager.WriteOptions writeOptions;
+    private File file;
+    private FileBackedTaskManager taskManager;
+    private List<Task> tasks;
+
+    @Setup(Level.Trial)
+    public void createBoard() throws IOException {
+        file = File.createTempFile("kanban-benchmark", ".csv");
+        writeOptions = FileBackedTaskManager.WriteOptions.SYNCHRONOUS.withShards(shards);
+        taskManager = new FileBackedTaskManager(file, Boards.HORIZON, Boards.CLOCK,
+                FileBackedTaskManager.SaveMode.SHARDED, writeOptions);
+        Boards.fill(taskManager, boardSize);
+        tasks = taskManager.getTasks();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() {
+        taskManager.close();
+        for (int i = 0; i < shards; i++) {
+            File shardFile = new File(file.getPath() + ".shard" + i);
+            if (!shardFile.delete()) {
+                System.out.println("Не удалось удалить временный файл '" + shardFile.getAbsolutePath() + "'");
+            }
+        }
+        if (!file.delete()) {
+            System.out.println("Не удалось удалить временный файл '" + file.getAbsolutePath() + "'");
+        }
+    }
+
+    // Изменение одной задачи перезаписывает один файл из shards
+    @Benchmark
+    public void updateAndSave() {
+        Task task = tasks.get(ThreadLocalRandom.current().nextInt(tasks.size()));
+        taskManager.updateTask(task.getId(), copy(task));
+    }
+
+    // Пакет задач из всех диапазонов ID перезаписывает все файлы параллельно
+    @Benchmark
+    public void updateAllAndSave() {
+        Map<Integer, Task> batch = new HashMap<>();
+        for (int i = 0; i < 64; i++) {
+            Task task = tasks.get(ThreadLocalRandom.current().nextInt(tasks.size()));
+            batch.put(task.getId(), copy(task));
+        }
+        taskManager.updateAll(batch);
+    }
+
+    @Benchmark
+    public FileBackedTaskManager loadFromFile() {
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file,
+                FileBackedTaskManager.SaveMode.SHARDED, writeOptions);
+        loaded.close();
+        return loaded;
+    }
+
+    private static Task copy(Task task) {
+        return new Task(task.getName(), task.getDescription(),
+                task.getStartTime().get().format(Task.DATE_FORMATTER), Boards.TASK_MINUTES);
+    }
+}
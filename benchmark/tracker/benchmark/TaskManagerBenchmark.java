@@ -0,0 +1,85 @@
+package tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import tracker.controllers.InMemoryTaskManager;
+import tracker.model.Task;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TaskManagerBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int boardSize;
+    private InMemoryTaskManager taskManager;
+    private List<Task> tasks;
+
+    @Setup(Level.Trial)
+    public void createBoard() {
+        taskManager = new InMemoryTaskManager(Boards.HORIZON, Boards.CLOCK);
+        Boards.fill(taskManager, boardSize);
+        tasks = taskManager.getTasks();
+    }
+
+    private Task randomTask() {
+        return tasks.get(ThreadLocalRandom.current().nextInt(tasks.size()));
+    }
+
+    // Размер доски не меняется: добавленная в свободный слот за доской задача сразу удаляется
+    @Benchmark
+    public void addAndDeleteTask() {
+        Task task = new Task("Новая задача", "Задача за пределами доски",
+                Boards.slot(boardSize + 1).format(Task.DATE_FORMATTER), Boards.TASK_MINUTES);
+        taskManager.addTask(task);
+        taskManager.deleteTask(task.getId());
+    }
+
+    @Benchmark
+    public void updateTask() {
+        Task task = randomTask();
+        Task update = new Task(task.getName(), task.getDescription(),
+                task.getStartTime().get().format(Task.DATE_FORMATTER), Boards.TASK_MINUTES);
+        taskManager.updateTask(task.getId(), update);
+    }
+
+    @Benchmark
+    public Task getTaskByID() {
+        return taskManager.getTaskByID(randomTask().getId());
+    }
+
+    // Проверка задачи на её собственном месте: интервал находится и заново резервируется
+    @Benchmark
+    public boolean isNotIntersect() {
+        return taskManager.isNotIntersect(randomTask());
+    }
+
+    @Benchmark
+    public void uniteTasks() {
+        taskManager.uniteTasks();
+    }
+
+    @Benchmark
+    public List<Task> getPrioritizedTasks() {
+        return taskManager.getPrioritizedTasks();
+    }
+
+    // Снимок сбрасывается каждым изменением, поэтому здесь измеряется его пересоздание
+    @Benchmark
+    public void getPrioritizedTasksAfterUpdate(Blackhole blackhole) {
+        updateTask();
+        blackhole.consume(taskManager.getPrioritizedTasks());
+    }
+
+    @Benchmark
+    public List<Task> getPrioritizedTasksInRange() {
+        int from = ThreadLocalRandom.current().nextInt(boardSize);
+        return taskManager.getPrioritizedTasks(Boards.slot(from), Boards.slot(from + 100), 0);
+    }
+}
@@ -0,0 +1,343 @@
+package tracker.collections;
+
+import java.util.*;
+
+// Открытая адресация по int-ключам: удаление сдвигает цепочку назад, снимок упорядочен по ключам
+public class IntHashMap<V> extends AbstractMap<Integer, V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int modCount;
+    // Неизменяемый снимок ключей и значений; сбрасывается при любом изменении таблицы. Снимок создаётся лениво
+    // и при параллельном чтении может быть создан несколькими потоками сразу, поэтому поле volatile.
+    private volatile Snapshot<V> snapshot;
+
+    public IntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntHashMap(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity * 3 < expectedSize * 4) {
+            capacity <<= 1;
+        }
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    public V get(int key) {
+        int slot = slotOf(key);
+        return slot < 0 ? null : valueAt(slot);
+    }
+
+    public boolean containsKey(int key) {
+        return slotOf(key) >= 0;
+    }
+
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "IntHashMap не хранит null-значения");
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previous = valueAt(slot);
+                values[slot] = value;
+                invalidateSnapshot();
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        modCount++;
+        invalidateSnapshot();
+        if (size * 4 > keys.length * 3) {
+            resize(keys.length << 1);
+        }
+        return null;
+    }
+
+    public V remove(int key) {
+        int slot = slotOf(key);
+        if (slot < 0) return null;
+        V previous = valueAt(slot);
+        removeAt(slot);
+        return previous;
+    }
+
+    // Повторные вызовы без изменений таблицы между ними возвращают один и тот же список без копирования.
+    // Слоты сортируются по ключу в одном массиве long: ключ в старших 32 битах, номер слота в младших.
+    public List<V> snapshot() {
+        return currentSnapshot().values();
+    }
+
+    // Неизменяемое отображение по тому же снимку: перебор по возрастанию ключей, поиск - двоичный.
+    // Таблицу можно менять во время перебора отображения.
+    public Map<Integer, V> snapshotMap() {
+        return currentSnapshot().map();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Snapshot<V> currentSnapshot() {
+        Snapshot<V> current = snapshot;
+        if (current == null) {
+            long[] order = new long[size];
+            int index = 0;
+            for (int slot = 0; slot < values.length; slot++) {
+                if (values[slot] != null) {
+                    order[index++] = (long) keys[slot] << 32 | slot;
+                }
+            }
+            Arrays.sort(order);
+            int[] sortedKeys = new int[size];
+            Object[] array = new Object[size];
+            for (int i = 0; i < size; i++) {
+                sortedKeys[i] = (int) (order[i] >> 32);
+                array[i] = values[(int) order[i]];
+            }
+            current = new Snapshot<>(sortedKeys, Collections.unmodifiableList(Arrays.asList((V[]) array)));
+            snapshot = current;
+        }
+        return current;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer ? get((int) (Integer) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && containsKey((int) (Integer) key);
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        return put((int) key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Integer ? remove((int) (Integer) key) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+        modCount++;
+        invalidateSnapshot();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    V element(int slot) {
+                        return valueAt(slot);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<Integer, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Integer, V>> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    Entry<Integer, V> element(int slot) {
+                        return new SimpleImmutableEntry<>(keys[slot], valueAt(slot));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int slotOf(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void removeAt(int slot) {
+        int mask = keys.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (values[next] != null) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[gap] = null;
+        size--;
+        modCount++;
+        invalidateSnapshot();
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] == null) continue;
+            int slot = mix(oldKeys[i]) & mask;
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    // Умножение на константу Фибоначчи и свёртка старших битов в младшие, по которым берётся слот
+    private static int mix(int key) {
+        int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    // Запись в volatile-поле дороже чтения, поэтому сбрасывается только существующий снимок
+    private void invalidateSnapshot() {
+        if (snapshot != null) {
+            snapshot = null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    private abstract class SlotIterator<E> implements Iterator<E> {
+        private final int expectedModCount = modCount;
+        private int slot = nextSlot(0);
+
+        abstract E element(int slot);
+
+        @Override
+        public boolean hasNext() {
+            return slot < values.length;
+        }
+
+        @Override
+        public E next() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            if (!hasNext()) throw new NoSuchElementException();
+            E element = element(slot);
+            slot = nextSlot(slot + 1);
+            return element;
+        }
+
+        private int nextSlot(int from) {
+            while (from < values.length && values[from] == null) {
+                from++;
+            }
+            return from;
+        }
+    }
+
+    private record Snapshot<V>(int[] keys, List<V> values, Map<Integer, V> map) {
+        Snapshot(int[] keys, List<V> values) {
+            this(keys, values, new SnapshotMap<>(keys, values));
+        }
+    }
+
+    private static final class SnapshotMap<V> extends AbstractMap<Integer, V> {
+        private final int[] keys;
+        private final List<V> values;
+
+        SnapshotMap(int[] keys, List<V> values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        @Override
+        public V get(Object key) {
+            if (!(key instanceof Integer id)) return null;
+            int index = Arrays.binarySearch(keys, id);
+            return index >= 0 ? values.get(index) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return (key instanceof Integer id) && Arrays.binarySearch(keys, id) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return keys.length;
+        }
+
+        @Override
+        public Collection<V> values() {
+            return values;
+        }
+
+        @Override
+        public Set<Entry<Integer, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Integer, V>> iterator() {
+                    return new Iterator<>() {
+                        private int index;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < keys.length;
+                        }
+
+                        @Override
+                        public Entry<Integer, V> next() {
+                            if (!hasNext()) throw new NoSuchElementException();
+                            Entry<Integer, V> entry = new SimpleImmutableEntry<>(keys[index], values.get(index));
+                            index++;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package tracker.controllers;
+
+import tracker.model.Task;
+import tracker.store.TaskCodec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+// Последний выданный ID хранится в заголовке: ID удалённых задач не выдаются повторно
+final class BinarySnapshot {
+    private static final int MAGIC = 0x4B414E42;
+    private static final short VERSION = 1;
+
+    private BinarySnapshot() {
+    }
+
+    static boolean isBinary(ByteBuffer buffer) {
+        return buffer.remaining() >= Integer.BYTES && buffer.getInt(buffer.position()) == MAGIC;
+    }
+
+    static byte[] encode(Collection<Task> tasks, int lastId) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + tasks.size() * 64);
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(MAGIC);
+            output.writeShort(VERSION);
+            output.writeInt(lastId);
+            output.writeInt(tasks.size());
+            for (Task task : tasks) {
+                TaskCodec.write(output, task);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Возвращает последний выданный ID, сохранённый в снимке
+    static int decode(ByteBuffer buffer, Consumer<Task> consumer) {
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Данные не являются двоичным снимком доски.");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Неподдерживаемая версия двоичного снимка: " + version);
+        }
+        int lastId = buffer.getInt();
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            consumer.accept(TaskCodec.read(buffer));
+        }
+        return lastId;
+    }
+}
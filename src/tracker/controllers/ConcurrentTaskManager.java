@@ -0,0 +1,288 @@
+package tracker.controllers;
+
+import tracker.history.SynchronizedHistoryManager;
+import tracker.model.Epic;
+import tracker.model.Subtask;
+import tracker.model.Task;
+import tracker.schedule.IntervalIndex;
+import tracker.store.InMemoryTaskStore;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Эпики меняются на месте, поэтому наружу отдаются их копии, снятые под блокировкой
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Копия последнего списка getPrioritizedTasks() менеджера; пересобирается, когда тот сменился
+    private volatile PrioritizedCopy prioritizedCopy;
+
+    public ConcurrentTaskManager() {
+        this(DEFAULT_PLANNING_HORIZON, Clock.systemDefaultZone());
+    }
+
+    public ConcurrentTaskManager(Period planningHorizon, Clock clock) {
+        super(new InMemoryTaskStore(), planningHorizon, clock,
+                resolver -> new SynchronizedHistoryManager(Managers.getDefaultHistory()));
+    }
+
+    /// Задачи
+    @Override
+    public List<Task> getTasks() {
+        return read(super::getTasks);
+    }
+
+    @Override
+    public Map<Integer, Task> getTasksMap() {
+        return read(super::getTasksMap);
+    }
+
+    @Override
+    public void clearTasks() {
+        write(super::clearTasks);
+    }
+
+    @Override
+    public Task getTaskByID(int taskID) {
+        return read(() -> super.getTaskByID(taskID));
+    }
+
+    @Override
+    public void addTask(Task task) {
+        write(() -> super.addTask(task));
+    }
+
+    @Override
+    public void updateTask(int taskID, Task task) {
+        write(() -> super.updateTask(taskID, task));
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        write(() -> super.deleteTask(id));
+    }
+    /// ---------------------------------
+
+    /// Эпики
+    @Override
+    public List<Epic> getEpics() {
+        return read(() -> super.getEpics().stream().map(Epic::new).toList());
+    }
+
+    @Override
+    public Map<Integer, Epic> getEpicsMap() {
+        return read(() -> {
+            Map<Integer, Epic> epics = new HashMap<>();
+            super.getEpicsMap().forEach((id, epic) -> epics.put(id, new Epic(epic)));
+            return Map.copyOf(epics);
+        });
+    }
+
+    @Override
+    public void clearEpics() {
+        write(super::clearEpics);
+    }
+
+    @Override
+    public Epic getEpicByID(int epicID) {
+        return read(() -> new Epic(super.getEpicByID(epicID)));
+    }
+
+    @Override
+    public void addEpic(Epic epic) {
+        write(() -> super.addEpic(epic));
+    }
+
+    @Override
+    public void updateEpic(int epicID, Epic epic) {
+        write(() -> super.updateEpic(epicID, epic));
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        write(() -> super.deleteEpic(id));
+    }
+
+    @Override
+    public void updateEpicStatus(Epic epic) {
+        write(() -> super.updateEpicStatus(epic));
+    }
+
+    @Override
+    public void updateEpicTime(Epic epic) {
+        write(() -> super.updateEpicTime(epic));
+    }
+
+    @Override
+    public Map<Integer, Subtask> getEpicSubtasks(int epicID) {
+        return read(() -> super.getEpicSubtasks(epicID));
+    }
+    /// ---------------------------------
+
+    /// Подзадачи
+    @Override
+    public List<Subtask> getSubtasks() {
+        return read(super::getSubtasks);
+    }
+
+    @Override
+    public Map<Integer, Subtask> getSubtasksMap() {
+        return read(super::getSubtasksMap);
+    }
+
+    @Override
+    public void clearSubtasks() {
+        write(super::clearSubtasks);
+    }
+
+    @Override
+    public Subtask getSubtaskByID(int subtaskID) {
+        return read(() -> super.getSubtaskByID(subtaskID));
+    }
+
+    @Override
+    public void addSubtask(Subtask subtask) {
+        write(() -> super.addSubtask(subtask));
+    }
+
+    @Override
+    public void updateSubtask(int subtaskID, Subtask subtask) {
+        write(() -> super.updateSubtask(subtaskID, subtask));
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        write(() -> super.deleteSubtask(id));
+    }
+    /// ---------------------------------
+
+    /// Пакетные операции
+    @Override
+    public void addAll(Collection<? extends Task> items) {
+        write(() -> super.addAll(items));
+    }
+
+    @Override
+    public void updateAll(Map<Integer, ? extends Task> items) {
+        write(() -> super.updateAll(items));
+    }
+
+    @Override
+    public void deleteAll(Collection<Integer> ids) {
+        write(() -> super.deleteAll(ids));
+    }
+    /// ---------------------------------
+
+    @Override
+    public List<Task> getHistory() {
+        return read(() -> copyEpics(super.getHistory()));
+    }
+
+    @Override
+    public void uniteTasks() {
+        write(super::uniteTasks);
+    }
+
+    @Override
+    public Map<Integer, Task> getAllTasks() {
+        return read(() -> {
+            Map<Integer, Task> tasks = new TreeMap<>();
+            super.getAllTasks().forEach((id, task) -> tasks.put(id, task instanceof Epic epic ? new Epic(epic) : task));
+            return Collections.unmodifiableMap(tasks);
+        });
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return read(() -> {
+            List<Task> prioritized = super.getPrioritizedTasks();
+            PrioritizedCopy copy = prioritizedCopy;
+            if (copy == null || copy.source() != prioritized) {
+                copy = new PrioritizedCopy(prioritized, copyEpics(prioritized));
+                prioritizedCopy = copy;
+            }
+            return copy.tasks();
+        });
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        return read(() -> copyEpics(super.getPrioritizedTasks(from, to, limit)));
+    }
+
+    @Override
+    public Optional<LocalDateTime> findFreeSlot(Duration duration, LocalDateTime notBefore) {
+        return read(() -> super.findFreeSlot(duration, notBefore));
+    }
+
+    @Override
+    public void addTaskInFreeSlot(Task task) {
+        write(() -> super.addTaskInFreeSlot(task));
+    }
+
+    @Override
+    public void addSubtaskInFreeSlot(Subtask subtask) {
+        write(() -> super.addSubtaskInFreeSlot(subtask));
+    }
+
+    @Override
+    public boolean isNotIntersect(Task taskToCheck) {
+        return write(() -> super.isNotIntersect(taskToCheck));
+    }
+
+    @Override
+    public void setTaskIntervals(Integer taskID, LocalDateTime startTime, LocalDateTime endTime) {
+        write(() -> super.setTaskIntervals(taskID, startTime, endTime));
+    }
+
+    @Override
+    public List<IntervalIndex.Interval> getTaskIntervals() {
+        return read(super::getTaskIntervals);
+    }
+
+    @Override
+    public void releaseTaskIntervals(Task task) {
+        write(() -> super.releaseTaskIntervals(task));
+    }
+
+    private static List<Task> copyEpics(List<Task> tasks) {
+        List<Task> result = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            result.add(task instanceof Epic epic ? new Epic(epic) : task);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private <T> T read(Supplier<T> action) {
+        return locked(lock.readLock(), action);
+    }
+
+    private <T> T write(Supplier<T> action) {
+        return locked(lock.writeLock(), action);
+    }
+
+    private void write(Runnable action) {
+        locked(lock.writeLock(), () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private static <T> T locked(Lock lock, Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record PrioritizedCopy(List<Task> source, List<Task> tasks) {
+    }
+}
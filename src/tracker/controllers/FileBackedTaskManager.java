@@ -1,25 +1,163 @@
 package tracker.controllers;
 
+import tracker.collections.IntHashMap;
 import tracker.exceptions.ManagerSaveException;
+import tracker.history.FileBackedHistoryManager;
 import tracker.model.Epic;
 import tracker.model.Subtask;
 import tracker.model.Task;
 import tracker.model.TaskType;
+import tracker.store.InMemoryTaskStore;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.Period;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
 
 public class FileBackedTaskManager extends InMemoryTaskManager {
     private static final String CSV_HEADER = "id,type,name,status,description,duration,startTime,endTime,epic";
+    // Строка снимка CSV с последним выданным ID: ID удалённых задач не выдаются повторно после загрузки
+    private static final String CSV_LAST_ID = "LAST_ID,";
+    private static final String JOURNAL_PUT = "PUT,";
+    private static final String JOURNAL_DELETE = "DELETE,";
+    private static final int MIN_JOURNAL_RECORDS = 1000;
+    // Меньше этого размера на поток файл читается последовательно: разбиение не окупается
+    private static final long MIN_CHUNK_BYTES = 1 << 20;
+    private static final int CHUNKS_PER_THREAD = 4;
     private final File file;
+    private final File journalFile;
+    private final SaveMode saveMode;
+    private final WriteOptions writeOptions;
+    private final TaskFileWriter writer;
+    private final FileBackedHistoryManager historyManager;
+    // Изменения текущей операции: null означает удаление
+    private final Map<Integer, Task> pendingChanges;
+    private int journalRecords;
+    // Размер страницы в режиме SEGMENTED; 0, пока файл не записан по страницам
+    private int pageSize;
+    // Последний выданный ID, записанный в заголовок файла по страницам или в основной файл доски из нескольких файлов
+    private int writtenLastId;
+    // Запись файлов доски в режиме SHARDED: по одному писателю на файл и общий пул для их параллельной записи
+    private final TaskFileWriter[] shardWriters;
+    private final ExecutorService shardPool;
+    // Число файлов доски, найденное при загрузке; пока оно не совпадает с writeOptions.shards(),
+    // следующее сохранение перезаписывает все файлы
+    private int writtenShards;
+    // Задачи каждого файла доски в режиме SHARDED: собираются по всей доске при первом сохранении, дальше
+    // обновляются по изменениям, так что сохранение перебирает только задачи перезаписываемых файлов
+    private List<IntHashMap<Task>> shardTasks;
+
+    // JOURNAL, SEGMENTED и SHARDED пишут только изменённые записи, страницы или файлы
+    public enum SaveMode {
+        SNAPSHOT,
+        JOURNAL,
+        SEGMENTED,
+        SHARDED
+    }
+
+    // Когда изменения сбрасываются на диск (fsync): после каждой записи, не чаще раза в интервал или никогда
+    public enum SyncPolicy {
+        EVERY_WRITE,
+        INTERVAL,
+        NEVER
+    }
+
+    // Формат снимка; при загрузке формат определяется по содержимому файла, журнал всегда пишется в CSV
+    public enum SnapshotFormat {
+        CSV,
+        BINARY
+    }
+
+    // При отложенной записи изменения сохраняются фоновым потоком, а метод, изменивший доску, не ждёт диска.
+    // Записанное гарантированно оказывается в файле только после flush(). shards - число файлов в режиме SHARDED.
+    public record WriteOptions(boolean writeBehind, SyncPolicy syncPolicy, Duration syncInterval,
+                               SnapshotFormat snapshotFormat, int shards) {
+        public static final int DEFAULT_SHARDS = 8;
+        public static final WriteOptions SYNCHRONOUS = new WriteOptions(false, SyncPolicy.NEVER, Duration.ZERO,
+                SnapshotFormat.CSV, DEFAULT_SHARDS);
+
+        public WriteOptions {
+            if (shards < 1) {
+                throw new IllegalArgumentException("Число файлов доски должно быть положительным.");
+            }
+        }
+
+        public static WriteOptions writeBehind(SyncPolicy syncPolicy, Duration syncInterval) {
+            return new WriteOptions(true, syncPolicy, syncInterval, SnapshotFormat.CSV, DEFAULT_SHARDS);
+        }
+
+        public WriteOptions withSnapshotFormat(SnapshotFormat snapshotFormat) {
+            return new WriteOptions(writeBehind, syncPolicy, syncInterval, snapshotFormat, shards);
+        }
+
+        public WriteOptions withShards(int shards) {
+            return new WriteOptions(writeBehind, syncPolicy, syncInterval, snapshotFormat, shards);
+        }
+    }
 
     public FileBackedTaskManager(File file) {
-        super();
+        this(file, SaveMode.SNAPSHOT);
+    }
+
+    public FileBackedTaskManager(File file, SaveMode saveMode) {
+        this(file, DEFAULT_PLANNING_HORIZON, Clock.systemDefaultZone(), saveMode);
+    }
+
+    public FileBackedTaskManager(File file, Period planningHorizon, Clock clock) {
+        this(file, planningHorizon, clock, SaveMode.SNAPSHOT);
+    }
+
+    public FileBackedTaskManager(File file, Period planningHorizon, Clock clock, SaveMode saveMode) {
+        this(file, planningHorizon, clock, saveMode, WriteOptions.SYNCHRONOUS);
+    }
+
+    public FileBackedTaskManager(File file, Period planningHorizon, Clock clock, SaveMode saveMode,
+                                 WriteOptions writeOptions) {
+        this(file, planningHorizon, clock, saveMode, writeOptions,
+                new FileBackedHistoryManager(new File(file.getPath() + ".history")));
+    }
+
+    // История просмотров дописывается в файл <файл>.history и читается при первом обращении к ней
+    private FileBackedTaskManager(File file, Period planningHorizon, Clock clock, SaveMode saveMode,
+                                  WriteOptions writeOptions, FileBackedHistoryManager historyManager) {
+        super(new InMemoryTaskStore(), planningHorizon, clock, resolver -> {
+            historyManager.setTaskResolver(resolver);
+            return historyManager;
+        });
+        this.historyManager = historyManager;
         this.file = file;
+        this.saveMode = saveMode;
+        this.writeOptions = writeOptions;
+        journalFile = new File(file.getPath() + ".journal");
+        pendingChanges = new LinkedHashMap<>();
+        writer = new TaskFileWriter(file, journalFile, writeOptions);
+        if (saveMode == SaveMode.SHARDED) {
+            shardWriters = new TaskFileWriter[writeOptions.shards()];
+            for (int i = 0; i < shardWriters.length; i++) {
+                File shardFile = ShardedSnapshot.shardFile(file, i);
+                shardWriters[i] = new TaskFileWriter(shardFile, new File(shardFile.getPath() + ".journal"),
+                        writeOptions);
+            }
+            int threads = Math.min(shardWriters.length, Runtime.getRuntime().availableProcessors());
+            shardPool = Executors.newFixedThreadPool(threads, job -> {
+                Thread thread = new Thread(job, "task-shard-writer-" + file.getName());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            shardWriters = null;
+            shardPool = null;
+        }
     }
 
     public static void main(String[] args) throws IOException {
@@ -131,20 +269,274 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
 
     /// ---------------------------------
 
+    /// Пакетные операции: файл перезаписывается один раз на весь пакет
+    @Override
+    public void addAll(Collection<? extends Task> items) {
+        super.addAll(items);
+        save();
+    }
+
+    @Override
+    public void updateAll(Map<Integer, ? extends Task> items) {
+        super.updateAll(items);
+        save();
+    }
+
+    @Override
+    public void deleteAll(Collection<Integer> ids) {
+        super.deleteAll(ids);
+        save();
+    }
+    /// ---------------------------------
+
     public File getFile() {
         return file;
     }
 
+    public File getJournalFile() {
+        return journalFile;
+    }
+
+    public File getHistoryFile() {
+        return historyManager.getLogFile();
+    }
+
+    public SaveMode getSaveMode() {
+        return saveMode;
+    }
+
+    @Override
+    protected void taskStored(Task task) {
+        pendingChanges.put(task.getId(), task);
+    }
+
+    @Override
+    protected void taskRemoved(int id) {
+        pendingChanges.put(id, null);
+    }
+
+    // Ожидает, пока все изменения будут записаны; вызывается перед завершением работы при отложенной записи
+    public void flush() throws ManagerSaveException {
+        if (shardWriters != null) {
+            for (TaskFileWriter shardWriter : shardWriters) {
+                shardWriter.flush();
+            }
+        }
+        writer.flush();
+        historyManager.flush();
+    }
+
+    @Override
+    public void close() throws ManagerSaveException {
+        try {
+            if (shardWriters != null) {
+                for (TaskFileWriter shardWriter : shardWriters) {
+                    shardWriter.close();
+                }
+            }
+            writer.close();
+        } finally {
+            historyManager.close();
+            if (shardPool != null) {
+                shardPool.shutdown();
+            }
+            super.close();
+        }
+    }
+
+    public int getWriteQueueDepth() {
+        return writer.getQueueDepth();
+    }
+
+    public Duration getLastFlushLatency() {
+        return writer.getLastFlushLatency();
+    }
+
+    // Записи для файла формируются в потоке вызова, поэтому фоновому потоку не нужен доступ к доске
     private void save() throws ManagerSaveException {
-        try (FileWriter writer = new FileWriter(file)) {
-            writer.write(CSV_HEADER + "\n");
+        if (saveMode == SaveMode.SEGMENTED) {
+            saveSegments();
+        } else if (saveMode == SaveMode.SHARDED) {
+            saveShards();
+        } else if (saveMode == SaveMode.JOURNAL
+                && journalRecords + pendingChanges.size() < Math.max(MIN_JOURNAL_RECORDS, getAllTasks().size())) {
+            if (!pendingChanges.isEmpty()) {
+                List<String> records = new ArrayList<>(pendingChanges.size());
+                for (Map.Entry<Integer, Task> change : pendingChanges.entrySet()) {
+                    records.add(frame(change.getValue() != null
+                            ? JOURNAL_PUT + toString(change.getValue()) : JOURNAL_DELETE + change.getKey()));
+                }
+                writer.submit(TaskFileWriter.WriteJob.journal(records));
+                journalRecords += records.size();
+            }
+        } else {
+            writer.submit(TaskFileWriter.WriteJob.snapshot(writeOptions.snapshotFormat() == SnapshotFormat.BINARY
+                    ? BinarySnapshot.encode(getAllTasks().values(), getIdGenerator().getLastId())
+                    : csvSnapshot(getAllTasks().values(), getIdGenerator().getLastId())));
+            journalRecords = 0;
+        }
+        pendingChanges.clear();
+    }
+
+    // Страницы изменённых задач перезаписываются на месте. Если страница переросла свой размер,
+    // файл целиком перезаписывается с новым размером страниц.
+    private void saveSegments() throws ManagerSaveException {
+        SortedSet<Integer> dirty = new TreeSet<>();
+        pendingChanges.keySet().forEach(id -> dirty.add(SegmentedSnapshot.segmentOf(id)));
+        pendingChanges.clear();
+        if (pageSize > 0) {
+            Map<Long, byte[]> pages = new LinkedHashMap<>();
+            for (int segment : dirty) {
+                byte[] content = segmentContent(segment);
+                if (!SegmentedSnapshot.fits(content, pageSize)) {
+                    pages = null;
+                    break;
+                }
+                pages.put(SegmentedSnapshot.offsetOf(segment, pageSize), SegmentedSnapshot.page(content));
+            }
+            int lastId = getIdGenerator().getLastId();
+            if (pages != null && lastId != writtenLastId) {
+                pages.put(SegmentedSnapshot.LAST_ID_OFFSET, SegmentedSnapshot.lastId(lastId));
+                writtenLastId = lastId;
+            }
+            if (pages != null) {
+                if (!pages.isEmpty()) {
+                    writer.submit(TaskFileWriter.WriteJob.pages(pages));
+                }
+                return;
+            }
+        }
+        SortedMap<Integer, StringBuilder> segments = new TreeMap<>();
+        for (Task task : getAllTasks().values()) {
+            segments.computeIfAbsent(SegmentedSnapshot.segmentOf(task.getId()), segment -> new StringBuilder())
+                    .append(toString(task)).append("\n");
+        }
+        SortedMap<Integer, byte[]> contents = new TreeMap<>();
+        int largest = 0;
+        for (Map.Entry<Integer, StringBuilder> segment : segments.entrySet()) {
+            byte[] content = segment.getValue().toString().getBytes(StandardCharsets.UTF_8);
+            contents.put(segment.getKey(), content);
+            largest = Math.max(largest, content.length);
+        }
+        pageSize = SegmentedSnapshot.pageSizeFor(largest);
+        writtenLastId = getIdGenerator().getLastId();
+        writer.submit(TaskFileWriter.WriteJob.snapshot(SegmentedSnapshot.encode(contents, pageSize, writtenLastId)));
+    }
+
+    private byte[] segmentContent(int segment) {
+        StringBuilder content = new StringBuilder();
+        int from = segment * SegmentedSnapshot.SEGMENT_IDS;
+        for (int id = from; id < from + SegmentedSnapshot.SEGMENT_IDS; id++) {
+            Task task = getAllTasks().get(id);
+            if (task != null) {
+                content.append(toString(task)).append("\n");
+            }
+        }
+        return content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Каждый файл заменяется атомарно, доска целиком - нет
+    private void saveShards() throws ManagerSaveException {
+        int shards = shardWriters.length;
+        boolean rewriteAll = writtenShards != shards;
+        boolean[] dirty = new boolean[shards];
+        boolean deleted = false;
+        if (shardTasks == null) {
+            shardTasks = new ArrayList<>(shards);
+            for (int i = 0; i < shards; i++) {
+                shardTasks.add(new IntHashMap<>());
+            }
             for (Task task : getAllTasks().values()) {
-                writer.write(toString(task) + "\n");
+                shardTasks.get(ShardedSnapshot.shardOf(task, shards)).put(task.getId(), task);
+            }
+        }
+        for (Map.Entry<Integer, Task> change : pendingChanges.entrySet()) {
+            int id = change.getKey();
+            Task task = change.getValue();
+            if (task != null) {
+                int shard = ShardedSnapshot.shardOf(task, shards);
+                dirty[shard] = true;
+                // Подзадача могла перейти к эпику из другого файла
+                if (shardTasks.get(shard).put(id, task) == null && task instanceof Subtask) {
+                    for (int i = 0; i < shards; i++) {
+                        if (i != shard && shardTasks.get(i).remove(id) != null) {
+                            dirty[i] = true;
+                        }
+                    }
+                }
+            } else {
+                deleted = true;
+                int shard = ShardedSnapshot.shardOf(id, shards);
+                for (int i = 0; i < shards; i++) {
+                    if (shardTasks.get(i).remove(id) != null) {
+                        shard = i;
+                        break;
+                    }
+                }
+                dirty[shard] = true;
             }
+        }
+        pendingChanges.clear();
+        // ID сохранённой задачи восстанавливается по ней самой, поэтому основной файл переписывается
+        // только при удалении. Последний ID попадает в него раньше файлов с задачами и не теряется при сбое.
+        int lastId = getIdGenerator().getLastId();
+        if (!rewriteAll && deleted && lastId != writtenLastId) {
+            writer.submit(TaskFileWriter.WriteJob.snapshot(ShardedSnapshot.manifest(shards, lastId)));
+            writtenLastId = lastId;
+        }
+        // Снимки задач файлов берутся в потоке вызова: в пуле читаются только неизменяемые списки
+        List<List<Task>> contents = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            contents.add(rewriteAll || dirty[i] ? shardTasks.get(i).snapshot() : null);
+        }
+        List<Callable<Void>> jobs = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            List<Task> content = contents.get(i);
+            if (content == null) continue;
+            TaskFileWriter shardWriter = shardWriters[i];
+            jobs.add(() -> {
+                shardWriter.submit(TaskFileWriter.WriteJob.snapshot(csvSnapshot(content, 0)));
+                return null;
+            });
+        }
+        try {
+            invokeAll(shardPool, jobs);
         } catch (IOException e) {
-            throw new ManagerSaveException("Возникла ошибка при записи данных в файл '" + file.getAbsolutePath()
-                    + "': " + e.getMessage());
+            throw new ManagerSaveException("Возникла ошибка при записи доски в файлы '" + file.getAbsolutePath()
+                    + ".shard*': " + e.getMessage());
         }
+        if (rewriteAll) {
+            // Файлы прежнего разбиения удаляются только после того, как новое записано целиком
+            for (TaskFileWriter shardWriter : shardWriters) {
+                shardWriter.flush();
+            }
+            writer.submit(TaskFileWriter.WriteJob.snapshot(ShardedSnapshot.manifest(shards, lastId)));
+            writer.flush();
+            writtenLastId = lastId;
+            for (int i = shards; i < writtenShards; i++) {
+                File staleFile = ShardedSnapshot.shardFile(file, i);
+                if (!staleFile.delete() && staleFile.exists()) {
+                    throw new ManagerSaveException("Не удалось удалить файл прежнего разбиения доски '"
+                            + staleFile.getAbsolutePath() + "'");
+                }
+            }
+            writtenShards = shards;
+        }
+    }
+
+    // Последний ID дописывается в конец, только если он больше ID всех задач снимка:
+    // иначе он восстанавливается по самим задачам
+    private byte[] csvSnapshot(Collection<Task> tasks, int lastId) {
+        StringBuilder snapshot = new StringBuilder(CSV_HEADER).append("\n");
+        int maxId = 0;
+        for (Task task : tasks) {
+            snapshot.append(toString(task)).append("\n");
+            maxId = Math.max(maxId, task.getId());
+        }
+        if (lastId > maxId) {
+            snapshot.append(CSV_LAST_ID).append(lastId).append("\n");
+        }
+        return snapshot.toString().getBytes(StandardCharsets.UTF_8);
     }
 
     private String toString(Task task) {
@@ -191,45 +583,271 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     }
 
     public static FileBackedTaskManager loadFromFile(File file) {
-        FileBackedTaskManager taskManager = new FileBackedTaskManager(file);
+        return loadFromFile(file, SaveMode.SNAPSHOT);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, SaveMode saveMode) {
+        return loadFromFile(file, saveMode, WriteOptions.SYNCHRONOUS);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, SaveMode saveMode, WriteOptions writeOptions) {
+        return loadFromFile(file, saveMode, writeOptions, 1);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, SaveMode saveMode, WriteOptions writeOptions,
+                                                     int parallelism) {
+        return loadFromFile(file, DEFAULT_PLANNING_HORIZON, Clock.systemDefaultZone(), saveMode, writeOptions,
+                parallelism);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, Period planningHorizon, Clock clock) {
+        return loadFromFile(file, planningHorizon, clock, SaveMode.SNAPSHOT);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, Period planningHorizon, Clock clock,
+                                                     SaveMode saveMode) {
+        return loadFromFile(file, planningHorizon, clock, saveMode, WriteOptions.SYNCHRONOUS, 1);
+    }
+
+    // При parallelism > 1 строки снимка CSV разбираются частями в пуле из parallelism потоков. Части собираются
+    // в порядке следования в файле, поэтому результат совпадает с последовательной загрузкой.
+    public static FileBackedTaskManager loadFromFile(File file, Period planningHorizon, Clock clock,
+                                                     SaveMode saveMode, WriteOptions writeOptions, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Число потоков загрузки должно быть положительным.");
+        }
+        FileBackedTaskManager taskManager = new FileBackedTaskManager(file, planningHorizon, clock, saveMode,
+                writeOptions);
 
         try {
-            String contents = Files.readString(file.toPath());
-            if (contents.isBlank()) {
-                return taskManager;
-            }
-
-            String[] tasks = contents.split("\n");
-            Arrays.asList(tasks).stream()
-                    .filter(taskLine -> !taskLine.equals(CSV_HEADER))
-                    .forEach(taskLine -> {
-                        switch (taskManager.fromString(taskLine).getType()) {
-                            case TaskType.TASK:
-                                taskManager.setTasksMap(taskManager.fromString(taskLine));
-                                break;
-                            case EPIC:
-                                taskManager.setEpicsMap((Epic) taskManager.fromString(taskLine));
-                                break;
-                            default:
-                                taskManager.setSubtasks((Subtask) taskManager.fromString(taskLine));
-                                break;
-                        }
-                    });
-
-            taskManager.getSubtasksMap().values().stream()
-                    .filter(subtask -> taskManager.getEpicsMap().containsKey(subtask.getEpicId()))
-                    .map(subtask -> {
-                        taskManager.getEpicsMap().get(subtask.getEpicId()).addSubtask(subtask);
-                        return taskManager.getEpicsMap().get(subtask.getEpicId());
-                    })
-                    .toList()
-                    .forEach(taskManager::updateEpicTime);
-
-            taskManager.uniteTasks();
+            TaskFileWriter.completeSnapshot(file, taskManager.journalFile);
+            Map<Integer, Task> journal = taskManager.readJournal();
+            Consumer<Task> restore = task -> {
+                if (!journal.containsKey(task.getId())) {
+                    taskManager.restoreTask(task);
+                }
+            };
+            taskManager.readSnapshot(restore, parallelism);
+            // ID задач, удалённых после снимка, есть только в журнале и тоже не выдаются повторно
+            journal.keySet().forEach(taskManager.getIdGenerator()::advanceTo);
+            journal.values().stream()
+                    .filter(Objects::nonNull)
+                    .forEach(taskManager::restoreTask);
+            taskManager.completeRestore();
+            taskManager.pendingChanges.clear();
         } catch (IOException e) {
             throw new ManagerSaveException("Возникла ошибка при попытке загрузки менеджера задач из файла '"
                     + file.getAbsolutePath() + "': " + e.getMessage());
         }
         return taskManager;
     }
-}
\ No newline at end of file
+
+    // Строки снимка читаются и разбираются по одной, так что в памяти держится только сама доска.
+    // Двоичный снимок читается из отображённого в память файла.
+    private void readSnapshot(Consumer<Task> restore, int parallelism) throws IOException {
+        // В режиме журнала снимок появляется только при первом сворачивании журнала
+        if (!file.exists() && (saveMode == SaveMode.JOURNAL || journalFile.exists())) return;
+        TaskFileWriter.restorePages(file);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(SegmentedSnapshot.HEADER_BYTES);
+            channel.read(header, 0);
+            if (SegmentedSnapshot.isSegmented(header.flip())) {
+                if (channel.size() > Integer.MAX_VALUE) {
+                    throw new IOException("Размер файла превышает 2 ГБ.");
+                }
+                if (saveMode == SaveMode.SEGMENTED) {
+                    pageSize = SegmentedSnapshot.pageSize(header);
+                    writtenLastId = SegmentedSnapshot.lastId(header);
+                }
+                getIdGenerator().advanceTo(SegmentedSnapshot.lastId(header));
+                SegmentedSnapshot.decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()),
+                        taskLine -> restore.accept(fromString(taskLine)));
+                return;
+            }
+            if (ShardedSnapshot.isSharded(header)) {
+                readShards(restore);
+                return;
+            }
+            if (BinarySnapshot.isBinary(header)) {
+                if (channel.size() > Integer.MAX_VALUE) {
+                    throw new IOException("Размер файла превышает 2 ГБ.");
+                }
+                getIdGenerator().advanceTo(BinarySnapshot.decode(
+                        channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), restore));
+                return;
+            }
+            int chunks = (int) Math.min((long) parallelism * CHUNKS_PER_THREAD, channel.size() / MIN_CHUNK_BYTES);
+            if (parallelism > 1 && chunks > 1) {
+                readChunks(channel, chunks, parallelism).forEach(tasks -> tasks.forEach(restore));
+                return;
+            }
+        }
+        readCsv(file, restore);
+    }
+
+    private void readCsv(File csvFile, Consumer<Task> restore) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(csvFile.toPath(), StandardCharsets.UTF_8)) {
+            String taskLine;
+            while ((taskLine = reader.readLine()) != null) {
+                if (taskLine.startsWith(CSV_LAST_ID)) {
+                    getIdGenerator().advanceTo(Integer.parseInt(taskLine.substring(CSV_LAST_ID.length())));
+                } else if (!taskLine.isBlank() && !taskLine.equals(CSV_HEADER)) {
+                    restore.accept(fromString(taskLine));
+                }
+            }
+        }
+    }
+
+    // Файлы доски разбираются параллельно, задачи передаются в restore в потоке вызова
+    private void readShards(Consumer<Task> restore) throws IOException {
+        ShardedSnapshot.Manifest manifest = ShardedSnapshot.readManifest(file);
+        int shards = manifest.shards();
+        getIdGenerator().advanceTo(manifest.lastId());
+        if (saveMode == SaveMode.SHARDED) {
+            writtenShards = shards;
+            writtenLastId = manifest.lastId();
+        }
+        List<Callable<List<Task>>> jobs = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            File shardFile = ShardedSnapshot.shardFile(file, i);
+            jobs.add(() -> {
+                List<Task> tasks = new ArrayList<>();
+                readCsv(shardFile, tasks::add);
+                return tasks;
+            });
+        }
+        ForkJoinPool pool = new ForkJoinPool(Math.min(shards, Runtime.getRuntime().availableProcessors()));
+        try {
+            invokeAll(pool, jobs).forEach(tasks -> tasks.forEach(restore));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private List<List<Task>> readChunks(FileChannel channel, int chunks, int parallelism) throws IOException {
+        List<Callable<List<Task>>> jobs = new ArrayList<>(chunks);
+        long from = 0;
+        for (int i = 1; i <= chunks; i++) {
+            long to = i == chunks ? channel.size() : lineStart(channel, channel.size() * i / chunks);
+            if (to > from) {
+                ByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+                jobs.add(() -> parseChunk(chunk));
+                from = to;
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return invokeAll(pool, jobs);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Результаты в порядке заданий; исключение задания пробрасывается как есть, если оно непроверяемое
+    private static <T> List<T> invokeAll(ExecutorService pool, List<Callable<T>> jobs) throws IOException {
+        try {
+            List<T> results = new ArrayList<>(jobs.size());
+            for (Future<T> result : pool.invokeAll(jobs)) {
+                results.add(result.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Работа с файлами доски прервана.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    // Начало первой строки, начинающейся не раньше position
+    private static long lineStart(FileChannel channel, long position) throws IOException {
+        if (position == 0) return 0;
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        long offset = position - 1;
+        while (channel.read(buffer.clear(), offset) > 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                offset++;
+                if (buffer.get() == '\n') return offset;
+            }
+        }
+        return channel.size();
+    }
+
+    private List<Task> parseChunk(ByteBuffer chunk) {
+        String contents = StandardCharsets.UTF_8.decode(chunk).toString();
+        List<Task> tasks = new ArrayList<>();
+        int start = 0;
+        while (start < contents.length()) {
+            int end = contents.indexOf('\n', start);
+            if (end < 0) {
+                end = contents.length();
+            }
+            int lineEnd = end > start && contents.charAt(end - 1) == '\r' ? end - 1 : end;
+            String taskLine = contents.substring(start, lineEnd);
+            if (taskLine.startsWith(CSV_LAST_ID)) {
+                getIdGenerator().advanceTo(Integer.parseInt(taskLine.substring(CSV_LAST_ID.length())));
+            } else if (!taskLine.isBlank() && !taskLine.equals(CSV_HEADER)) {
+                tasks.add(fromString(taskLine));
+            }
+            start = end + 1;
+        }
+        return tasks;
+    }
+
+    // Хвост прерванной записи отрезается, чтобы новые записи не дописывались к обрывку
+    private Map<Integer, Task> readJournal() throws IOException {
+        Map<Integer, Task> journal = new HashMap<>();
+        if (!journalFile.exists()) return journal;
+        byte[] contents = Files.readAllBytes(journalFile.toPath());
+        int start = 0;
+        while (start < contents.length) {
+            int end = start;
+            while (end < contents.length && contents[end] != '\n') {
+                end++;
+            }
+            String record = end < contents.length ? unframe(contents, start, end) : null;
+            if (record == null) break;
+            if (record.startsWith(JOURNAL_PUT)) {
+                Task task = fromString(record.substring(JOURNAL_PUT.length()));
+                journal.put(task.getId(), task);
+            } else if (record.startsWith(JOURNAL_DELETE)) {
+                journal.put(Integer.parseInt(record.substring(JOURNAL_DELETE.length())), null);
+            }
+            journalRecords++;
+            start = end + 1;
+        }
+        if (start < contents.length) {
+            try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(start);
+            }
+        }
+        return journal;
+    }
+
+    // Запись журнала хранится строкой "<CRC32 записи в шестнадцатеричном виде>,<запись>"
+    private static String frame(String record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue()) + "," + record;
+    }
+
+    // Запись из строки [start, end) или null, если контрольной суммы нет или она не совпадает
+    private static String unframe(byte[] contents, int start, int end) {
+        String line = new String(contents, start, end - start, StandardCharsets.UTF_8);
+        int separator = line.indexOf(',');
+        if (separator <= 0 || separator > 8) return null;
+        long expected;
+        try {
+            expected = Long.parseLong(line.substring(0, separator), 16);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(contents, start + separator + 1, end - start - separator - 1);
+        return crc.getValue() == expected ? line.substring(separator + 1) : null;
+    }
+}
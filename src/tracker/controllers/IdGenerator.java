@@ -0,0 +1,32 @@
+package tracker.controllers;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class IdGenerator {
+    private final AtomicInteger lastId;
+
+    public IdGenerator() {
+        lastId = new AtomicInteger();
+    }
+
+    public int next() {
+        return lastId.incrementAndGet();
+    }
+
+    // Резервирует count идущих подряд ID и возвращает первый из них
+    public int reserve(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Количество резервируемых ID должно быть положительным: " + count);
+        }
+        return lastId.getAndAdd(count) + 1;
+    }
+
+    // Гарантирует, что следующие выданные ID будут больше уже занятого
+    public void advanceTo(int usedId) {
+        lastId.accumulateAndGet(usedId, Math::max);
+    }
+
+    public int getLastId() {
+        return lastId.get();
+    }
+}
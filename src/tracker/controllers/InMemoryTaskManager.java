@@ -1,69 +1,97 @@
 package tracker.controllers;
 
+import tracker.collections.IntHashMap;
+import tracker.exceptions.ManagerSaveException;
 import tracker.exceptions.NotFoundException;
 import tracker.exceptions.TasksIntersectionException;
 import tracker.history.HistoryManager;
 import tracker.model.*;
+import tracker.schedule.IntervalIndex;
+import tracker.store.InMemoryTaskStore;
+import tracker.store.TaskStore;
 
+import java.time.Clock;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneOffset;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 
+// Задачи лежат в TaskStore; внешнее хранилище отдаёт копии, и изменения сохраняются только обновлением задачи
 public class InMemoryTaskManager implements TaskManager {
-    private HashMap<Integer, Task> tasks;
-    private HashMap<Integer, Epic> epics;
-    private HashMap<Integer, Subtask> subtasks;
+    public static final Period DEFAULT_PLANNING_HORIZON = Period.ofYears(1);
+    private static final long MIN_PRIORITY_MINUTE = -(1L << 32);
+    private static final long MAX_PRIORITY_MINUTE = (1L << 32) - 1;
+    private final Board board;
     private final HistoryManager historyManager;
-    private final Map<Integer, Task> allTasks;
-    private final Map<LocalDateTime, Integer> taskIntervals;
-    private final Set<Task> prioritizedTasks;
+    private final IdGenerator idGenerator;
+    private final IntervalIndex taskIntervals;
+    private final Period planningHorizon;
+    private final Clock clock;
 
     public InMemoryTaskManager() {
-        tasks = new HashMap<>();
-        epics = new HashMap<>();
-        subtasks = new HashMap<>();
-        historyManager = Managers.getDefaultHistory();
-        allTasks = new TreeMap<>((o1, o2) -> o1 - o2);
-        taskIntervals = new HashMap<>();
-        prioritizedTasks = new TreeSet<>((o1, o2) -> {
-            if (o1.getStartTime().get().isAfter(o2.getStartTime().get())) {
-                return 1;
-            } else if (o1.getStartTime().get().isBefore(o2.getStartTime().get())) {
-                return -1;
-            }
-            return o1.getId() - o2.getId();
-        });
+        this(DEFAULT_PLANNING_HORIZON, Clock.systemDefaultZone());
+    }
+
+    public InMemoryTaskManager(Period planningHorizon, Clock clock) {
+        this(new InMemoryTaskStore(), planningHorizon, clock);
+    }
+
+    public InMemoryTaskManager(TaskStore store) {
+        this(store, DEFAULT_PLANNING_HORIZON, Clock.systemDefaultZone());
+    }
+
+    // Доска восстанавливается одним перебором записей хранилища
+    public InMemoryTaskManager(TaskStore store, Period planningHorizon, Clock clock) {
+        this(store, planningHorizon, clock, resolver -> Managers.getDefaultHistory());
+    }
+
+    // История создаётся по функции поиска задачи по ID; функция не ссылается на сам менеджер
+    protected InMemoryTaskManager(TaskStore store, Period planningHorizon, Clock clock,
+                                  Function<IntFunction<Task>, HistoryManager> historyFactory) {
+        this.planningHorizon = planningHorizon;
+        this.clock = clock;
+        idGenerator = new IdGenerator();
+        taskIntervals = new IntervalIndex();
+        board = new Board(store, taskIntervals);
+        historyManager = historyFactory.apply(board::find);
+        store.forEach(board::restore);
+        board.completeRestore();
+        idGenerator.advanceTo(board.lastId);
     }
 
     /// Задачи
     @Override
-    public ArrayList<Task> getTasks() {
-        return new ArrayList<>(tasks.values());
+    public List<Task> getTasks() {
+        return listOf(TaskType.TASK);
     }
 
     @Override
     public Map<Integer, Task> getTasksMap() {
-        return new HashMap<>(tasks);
-    }
-
-    protected void setTasksMap(Task task) {
-        tasks.put(task.getId(), task);
+        return mapOf(TaskType.TASK);
     }
 
     @Override
     public void clearTasks() {
-        tasks = new HashMap<>();
+        for (int id : board.idsOf(TaskType.TASK)) {
+            taskIntervals.remove(id);
+            unindexTask(id);
+        }
         List<Task> tasks = historyManager.getHistory();
         tasks.stream()
                 .filter(task -> task.getType() == TaskType.TASK)
                 .forEach(task -> historyManager.remove(task.getId()));
-        uniteTasks();
+        board.save();
     }
 
     @Override
     public Task getTaskByID(int taskID) throws NotFoundException {
-        Task task = Optional.ofNullable(tasks.get(taskID))
-                .orElseThrow(() -> new NotFoundException("Задача с ID='" + taskID + "' не найдена."));
+        if (board.types.get(taskID) != TaskType.TASK) {
+            throw new NotFoundException("Задача с ID='" + taskID + "' не найдена.");
+        }
+        Task task = board.load(taskID);
         historyManager.add(task);
         return task;
     }
@@ -71,72 +99,72 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void addTask(Task task) {
         if (task == null) return;
-        int id = Task.getNewIdentificator();
+        int id = idGenerator.next();
         task.setId(id);
-        releaseTaskIntervals(task);
         if (isNotIntersect(task)) {
-            if (!tasks.containsKey(id)) {
-                tasks.put(task.getId(), task);
+            if (!board.types.containsKey(id)) {
+                indexTask(task);
             }
-            uniteTasks();
         }
+        board.save();
     }
 
     @Override
     public void updateTask(int taskID, Task task) throws NotFoundException {
-        if (!tasks.containsKey(taskID)) {
+        if (board.types.get(taskID) != TaskType.TASK) {
             throw new NotFoundException("Задача с ID='" + taskID + "' не найдена.");
         }
         task.setId(taskID);
-        releaseTaskIntervals(task);
         if (isNotIntersect(task)) {
-            tasks.put(task.getId(), task);
-            uniteTasks();
+            unindexTask(taskID);
+            indexTask(task);
         }
+        board.save();
     }
 
     @Override
     public void deleteTask(int id) throws NotFoundException {
-        Task task = getTaskByID(id);
-        if (task == null) {
-            throw new NotFoundException("Задача с ID='" + id + "' не найдена.");
-        }
+        removeTask(getTaskByID(id));
+        board.save();
+    }
+
+    private void removeTask(Task task) {
         releaseTaskIntervals(task);
-        tasks.remove(id);
-        historyManager.remove(id);
-        uniteTasks();
+        unindexTask(task.getId());
+        historyManager.remove(task.getId());
     }
     /// ---------------------------------
 
     /// Эпики
     @Override
-    public ArrayList<Epic> getEpics() {
-        return new ArrayList<>(epics.values());
+    public List<Epic> getEpics() {
+        return board.epics.snapshot();
     }
 
     @Override
     public Map<Integer, Epic> getEpicsMap() {
-        return new HashMap<>(epics);
-    }
-
-    protected void setEpicsMap(Epic epic) {
-        epics.put(epic.getId(), epic);
+        return board.epics.snapshotMap();
     }
 
     @Override
     public void clearEpics() {
-        epics = new HashMap<>();
-        subtasks = new HashMap<>();
+        for (Epic epic : board.epics.snapshot()) {
+            for (int subtaskId : epic.getSubtaskIds()) {
+                taskIntervals.remove(subtaskId);
+                unindexTask(subtaskId);
+            }
+            unindexTask(epic.getId());
+        }
         List<Task> epics = historyManager.getHistory();
         epics.stream()
                 .filter(epic -> epic.getType() == TaskType.EPIC)
                 .forEach(epic -> historyManager.remove(epic.getId()));
-        uniteTasks();
+        board.save();
     }
 
     @Override
     public Epic getEpicByID(int epicID) throws NotFoundException {
-        Epic epic = Optional.ofNullable(epics.get(epicID))
+        Epic epic = Optional.ofNullable(board.epics.get(epicID))
                 .orElseThrow(() -> new NotFoundException("Эпик с ID='" + epicID + "' не найден."));
         historyManager.add(epic);
         return epic;
@@ -145,151 +173,107 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void addEpic(Epic epic) {
         if (epic == null) return;
-        int id = Task.getNewIdentificator();
+        int id = idGenerator.next();
         epic.setId(id);
-        if (!epics.containsKey(id)) {
-            epics.put(epic.getId(), epic);
+        if (!board.types.containsKey(id)) {
+            indexTask(epic);
         }
-        uniteTasks();
+        board.save();
     }
 
     @Override
     public void updateEpic(int epicID, Epic epic) {
-        if ((epic != null) && (epics.containsKey(epicID))) {
+        if ((epic != null) && (board.epics.containsKey(epicID))) {
             epic.setId(epicID);
             updateEpicStatus(epic);
-            epics.put(epic.getId(), epic);
-            uniteTasks();
+            unindexTask(epicID);
+            indexTask(epic);
         }
+        board.save();
     }
 
     @Override
     public void deleteEpic(int id) throws NotFoundException {
-        Epic epic = getEpicByID(id);
-        if (epic == null) {
-            throw new NotFoundException("Эпик с ID='" + id + "' не найден.");
-        }
-        if (epic.getSubtasks() != null) {
-            epic.getSubtasks().values().stream()
-                    .forEach(this::releaseTaskIntervals);
-            epic.getSubtasks().values().stream()
-                    .forEach(subtask -> {
-                        subtasks.remove(subtask.getId());
-                        historyManager.remove(subtask.getId());
-                    });
+        removeEpic(getEpicByID(id));
+        board.save();
+    }
+
+    private void removeEpic(Epic epic) {
+        for (int subtaskId : epic.getSubtaskIds()) {
+            taskIntervals.remove(subtaskId);
+            unindexTask(subtaskId);
+            historyManager.remove(subtaskId);
         }
-        epics.remove(id);
-        historyManager.remove(id);
-        uniteTasks();
+        unindexTask(epic.getId());
+        historyManager.remove(epic.getId());
     }
 
     @Override
     public void updateEpicStatus(Epic epic) {
-        int newSubtasks = 0;
-        int doneSubtasks = 0;
-        for (Subtask subtask : epic.getSubtasks().values()) {
-            if (subtask.getStatus().equals(TaskStatus.NEW)) {
-                newSubtasks++;
-            } else if (subtask.getStatus().equals(TaskStatus.DONE)) {
-                doneSubtasks++;
-            }
-        }
-        if (epic.getSubtasks().isEmpty() || newSubtasks == epic.getSubtasks().size()) {
-            epic.setStatus("NEW");
-        } else if (doneSubtasks == epic.getSubtasks().size()) {
-            epic.setStatus("DONE");
-        } else {
-            epic.setStatus("IN_PROGRESS");
-        }
+        epic.updateStatus();
     }
 
     @Override
     public void updateEpicTime(Epic epic) {
-        if (epic.getSubtasks().isEmpty()) {
-            epic.setStartTime(null);
-            epic.setEndTime(null);
-            epic.setDuration(0);
-            return;
-        }
-        Optional<LocalDateTime> startDateTime = epic.getSubtasks().values().stream()
-                .filter(subtask -> subtask.getStartTime().isPresent() && subtask.getEndTime().isPresent())
-                .map(subtask -> subtask.getStartTime().get())
-                .min((startTime1, startTime2) -> {
-                    if (startTime1.isAfter(startTime2)) {
-                        return 1;
-                    } else if (startTime1.isBefore(startTime2)) {
-                        return -1;
-                    }
-                    return 0;
-                });
-        Optional<LocalDateTime> endDateTime = epic.getSubtasks().values().stream()
-                .filter(subtask -> subtask.getStartTime().isPresent() && subtask.getEndTime().isPresent())
-                .map(subtask -> subtask.getEndTime().get())
-                .max((endTime1, endTime2) -> {
-                    if (endTime1.isAfter(endTime2)) {
-                        return 1;
-                    } else if (endTime1.isBefore(endTime2)) {
-                        return -1;
-                    }
-                    return 0;
-                });
-
-        startDateTime.ifPresent(localDateTime
-                -> epic.setStartTime(localDateTime.format(Task.DATE_FORMATTER)));
-        endDateTime.ifPresent(localDateTime -> epic.setEndTime(localDateTime.format(Task.DATE_FORMATTER)));
-
-        Duration duration = Duration.ZERO;
-        for (Subtask subtask : epic.getSubtasks().values()) {
-            if (subtask.getDuration().isEmpty()) continue;
-            duration = duration.plus(subtask.getDuration().get());
+        boolean indexed = board.epics.get(epic.getId()) == epic;
+        if (indexed) {
+            unindexTask(epic.getId());
+        }
+        epic.updateTime();
+        if (indexed) {
+            indexTask(epic);
         }
-        epic.setDuration(duration.toMinutes());
     }
 
+    // Копия в порядке ID: таблица подзадач эпика перебирается в порядке слотов и меняется при записи
     @Override
-    public HashMap<Integer, Subtask> getEpicSubtasks(int epicID) throws NotFoundException {
-        Epic epic = epics.get(epicID);
+    public Map<Integer, Subtask> getEpicSubtasks(int epicID) throws NotFoundException {
+        Epic epic = board.epics.get(epicID);
         if (epic == null) {
             throw new NotFoundException("Эпик с ID='" + epicID + "' не найден.");
         }
-        return epic.getSubtasks();
+        Map<Integer, Subtask> subtasks = new LinkedHashMap<>();
+        for (int id : epic.getSubtaskIds()) {
+            subtasks.put(id, (Subtask) board.load(id));
+        }
+        return Collections.unmodifiableMap(subtasks);
     }
     /// ---------------------------------
 
     /// Подзадачи
     @Override
-    public ArrayList<Subtask> getSubtasks() {
-        return new ArrayList<>(subtasks.values());
+    public List<Subtask> getSubtasks() {
+        return listOf(TaskType.SUBTASK);
     }
 
     @Override
     public Map<Integer, Subtask> getSubtasksMap() {
-        return new HashMap<>(subtasks);
-    }
-
-    protected void setSubtasks(Subtask subtask) {
-        subtasks.put(subtask.getId(), subtask);
+        return mapOf(TaskType.SUBTASK);
     }
 
     @Override
     public void clearSubtasks() {
-        epics.values().stream()
-                .forEach(epic -> {
-                    epic.deleteSubtasks();
-                    updateEpicStatus(epic);
-                });
-        subtasks = new HashMap<>();
+        for (int id : board.idsOf(TaskType.SUBTASK)) {
+            taskIntervals.remove(id);
+            unindexTask(id);
+        }
+        for (Epic epic : board.epics.snapshot()) {
+            epic.deleteSubtasks();
+            refreshEpic(epic);
+        }
         List<Task> subTasks = historyManager.getHistory();
         subTasks.stream()
                 .filter(subTask -> subTask.getType() == TaskType.SUBTASK)
                 .forEach(subTask -> historyManager.remove(subTask.getId()));
-        uniteTasks();
+        board.save();
     }
 
     @Override
     public Subtask getSubtaskByID(int subtaskID) throws NotFoundException {
-        Subtask subtask = Optional.ofNullable(subtasks.get(subtaskID))
-                .orElseThrow(() -> new NotFoundException("Подзадача с ID='" + subtaskID + "' не найдена."));
+        if (board.types.get(subtaskID) != TaskType.SUBTASK) {
+            throw new NotFoundException("Подзадача с ID='" + subtaskID + "' не найдена.");
+        }
+        Subtask subtask = (Subtask) board.load(subtaskID);
         historyManager.add(subtask);
         return subtask;
     }
@@ -297,49 +281,195 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void addSubtask(Subtask subtask) {
         if (subtask == null) return;
-        int id = Task.getNewIdentificator();
+        int id = idGenerator.next();
         subtask.setId(id);
-        releaseTaskIntervals(subtask);
-        Epic epic = epics.get(subtask.getEpicId());
-        if (!subtasks.containsKey(id) && (epic != null) && isNotIntersect(subtask)) {
-            epic.addSubtask(subtask);
-            updateEpicStatus(epic);
-            updateEpicTime(epic);
-            subtasks.put(subtask.getId(), subtask);
-            uniteTasks();
+        Epic epic = board.epics.get(subtask.getEpicId());
+        if (!board.types.containsKey(id) && (epic != null) && isNotIntersect(subtask)) {
+            board.link(epic, subtask);
+            refreshEpic(epic);
+            indexTask(subtask);
         }
+        board.save();
     }
 
     @Override
     public void updateSubtask(int subtaskID, Subtask subtask) {
         if (subtask == null) return;
         subtask.setId(subtaskID);
-        releaseTaskIntervals(subtask);
-        if (subtasks.containsKey(subtaskID) && isNotIntersect(subtask)) {
-            Epic epic = epics.get(subtask.getEpicId());
-            epic.getSubtasks().put(subtaskID, subtask);
-            updateEpicStatus(epic);
-            subtasks.put(subtask.getId(), subtask);
-            uniteTasks();
+        Subtask previous = board.types.get(subtaskID) == TaskType.SUBTASK ? (Subtask) board.load(subtaskID) : null;
+        Epic epic = board.epics.get(subtask.getEpicId());
+        if ((previous != null) && (epic != null) && isNotIntersect(subtask)) {
+            if (previous.getEpicId() != subtask.getEpicId()) {
+                Epic previousEpic = board.epics.get(previous.getEpicId());
+                if (previousEpic != null) {
+                    board.unlink(previousEpic, subtaskID);
+                    refreshEpic(previousEpic);
+                }
+            }
+            board.link(epic, subtask);
+            refreshEpic(epic);
+            unindexTask(subtaskID);
+            indexTask(subtask);
         }
+        board.save();
     }
 
     @Override
     public void deleteSubtask(int id) throws NotFoundException {
         Subtask subtask = getSubtaskByID(id);
-        if (subtask == null) {
-            throw new NotFoundException("Подзадача с ID='" + id + "' не найдена.");
+        Epic epic = board.epics.get(subtask.getEpicId());
+        board.unlink(epic, id);
+        refreshEpic(epic);
+        removeSubtask(subtask);
+        board.save();
+    }
+
+    private void removeSubtask(Subtask subtask) {
+        releaseTaskIntervals(subtask);
+        unindexTask(subtask.getId());
+        historyManager.remove(subtask.getId());
+    }
+
+    /// ---------------------------------
+
+    /// Пакетные операции
+    // Весь пакет проверяется до первого изменения
+    @Override
+    public void addAll(Collection<? extends Task> items) throws NotFoundException {
+        List<Task> batch = new ArrayList<>(items.size());
+        for (Task item : items) {
+            if (item == null) continue;
+            if ((item instanceof Subtask subtask) && !board.epics.containsKey(subtask.getEpicId())) {
+                throw new NotFoundException("Эпик с ID='" + subtask.getEpicId() + "' не найден.");
+            }
+            batch.add(item);
+        }
+        if (batch.isEmpty()) return;
+        // ID резервируются только после проверки интервалов
+        int[] ids = new int[batch.size()];
+        int id = idGenerator.getLastId() + 1;
+        for (int i = 0; i < batch.size(); i++) {
+            ids[i] = id++;
+        }
+        reserveIntervals(batch, ids);
+        idGenerator.reserve(batch.size());
+        Map<Integer, Epic> touchedEpics = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Task item = batch.get(i);
+            item.setId(ids[i]);
+            if (item instanceof Subtask subtask) {
+                Epic epic = board.epics.get(subtask.getEpicId());
+                board.link(epic, subtask);
+                touchedEpics.put(epic.getId(), epic);
+            }
+            indexTask(item);
+        }
+        touchedEpics.values().forEach(this::refreshEpic);
+        board.save();
+    }
+
+    @Override
+    public void updateAll(Map<Integer, ? extends Task> items) throws NotFoundException {
+        List<Task> batch = new ArrayList<>(items.size());
+        List<Integer> ids = new ArrayList<>(items.size());
+        Map<Integer, Integer> previousEpics = new HashMap<>();
+        for (Map.Entry<Integer, ? extends Task> entry : items.entrySet()) {
+            Task item = entry.getValue();
+            if (item == null) continue;
+            if (board.types.get((int) entry.getKey()) != item.getType()) {
+                throw new NotFoundException("Задача с ID='" + entry.getKey() + "' не найдена.");
+            }
+            if (item instanceof Subtask subtask) {
+                if (!board.epics.containsKey(subtask.getEpicId())) {
+                    throw new NotFoundException("Эпик с ID='" + subtask.getEpicId() + "' не найден.");
+                }
+                previousEpics.put(entry.getKey(), ((Subtask) board.load(entry.getKey())).getEpicId());
+            }
+            batch.add(item);
+            ids.add(entry.getKey());
+        }
+        reserveIntervals(batch, ids.stream().mapToInt(Integer::intValue).toArray());
+        Map<Integer, Epic> touchedEpics = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Task item = batch.get(i);
+            int id = ids.get(i);
+            item.setId(id);
+            unindexTask(id);
+            if (item instanceof Epic epic) {
+                updateEpicStatus(epic);
+            } else if (item instanceof Subtask subtask) {
+                int previousEpicId = previousEpics.get(id);
+                if (previousEpicId != subtask.getEpicId()) {
+                    Epic previousEpic = board.epics.get(previousEpicId);
+                    if (previousEpic != null) {
+                        board.unlink(previousEpic, id);
+                        touchedEpics.put(previousEpic.getId(), previousEpic);
+                    }
+                }
+                Epic epic = board.epics.get(subtask.getEpicId());
+                board.link(epic, subtask);
+                touchedEpics.put(epic.getId(), epic);
+            }
+            indexTask(item);
+        }
+        touchedEpics.values().forEach(this::refreshEpic);
+        board.save();
+    }
+
+    @Override
+    public void deleteAll(Collection<Integer> ids) throws NotFoundException {
+        for (int id : ids) {
+            if (!board.types.containsKey(id)) {
+                throw new NotFoundException("Задача с ID='" + id + "' не найдена.");
+            }
+        }
+        Map<Integer, Epic> touchedEpics = new HashMap<>();
+        for (int id : ids) {
+            TaskType type = board.types.get(id);
+            if (type == TaskType.TASK) {
+                removeTask(board.load(id));
+            } else if (type == TaskType.EPIC) {
+                removeEpic(board.epics.get(id));
+                touchedEpics.remove(id);
+            } else if (type == TaskType.SUBTASK) {
+                Subtask subtask = (Subtask) board.load(id);
+                Epic epic = board.epics.get(subtask.getEpicId());
+                board.unlink(epic, id);
+                touchedEpics.put(epic.getId(), epic);
+                removeSubtask(subtask);
+            }
         }
-        Epic epic = epics.get(subtask.getEpicId());
-        epic.deleteSubtask(id);
+        touchedEpics.values().forEach(this::refreshEpic);
+        board.save();
+    }
+
+    private void refreshEpic(Epic epic) {
         updateEpicStatus(epic);
         updateEpicTime(epic);
-        releaseTaskIntervals(subtask);
-        subtasks.remove(id);
-        historyManager.remove(id);
-        uniteTasks();
     }
 
+    // При пересечении таблица интервалов возвращается в исходное состояние
+    private void reserveIntervals(List<Task> batch, int[] ids) {
+        List<IntervalIndex.Interval> released = new ArrayList<>();
+        for (int id : ids) {
+            taskIntervals.get(id).ifPresent(released::add);
+            taskIntervals.remove(id);
+        }
+        List<Integer> reserved = new ArrayList<>();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                Task item = batch.get(i);
+                if ((item instanceof Epic) || item.getStartTime().isEmpty()) continue;
+                checkInterval(item, ids[i]);
+                taskIntervals.add(ids[i], item.getStartTime().get(), item.getEndTime().get());
+                reserved.add(ids[i]);
+            }
+        } catch (TasksIntersectionException exception) {
+            reserved.forEach(taskIntervals::remove);
+            released.forEach(interval -> taskIntervals.add(interval.taskId(), interval.start(), interval.end()));
+            throw exception;
+        }
+    }
     /// ---------------------------------
 
     @Override
@@ -347,29 +477,138 @@ public class InMemoryTaskManager implements TaskManager {
         return historyManager.getHistory();
     }
 
+    // restoreTask() для каждой записи в любом порядке, затем completeRestore()
+    protected void restoreTask(Task task) {
+        idGenerator.advanceTo(task.getId());
+        board.store.put(task);
+        board.restore(task);
+    }
+
+    protected void completeRestore() {
+        board.completeRestore();
+    }
+
+    // Перестраивает индексы по записям хранилища
     public void uniteTasks() {
-        allTasks.clear();
-        allTasks.putAll(getTasksMap());
-        allTasks.putAll(getEpicsMap());
-        allTasks.putAll(getSubtasksMap());
-        prioritizedTasks.clear();
-        allTasks.values().stream()
-                .filter(task -> task.getStartTime().isPresent())
-                .forEach(prioritizedTasks::add);
+        board.clearIndex();
+        board.store.forEach(board::restore);
+        board.completeRestore();
+    }
+
+    private void indexTask(Task task) {
+        board.add(task);
+        taskStored(task);
+    }
+
+    private void unindexTask(int id) {
+        if (board.remove(id)) {
+            taskRemoved(id);
+        }
+    }
+
+    // Обновление задачи - удаление и повторное сохранение; uniteTasks() их не вызывает
+    protected void taskStored(Task task) {
     }
 
+    protected void taskRemoved(int id) {
+    }
+
+    public IdGenerator getIdGenerator() {
+        return idGenerator;
+    }
+
+    // Все задачи доски по возрастанию ID; эпики - объекты менеджера
     public Map<Integer, Task> getAllTasks() {
-        return allTasks;
+        if (board.keepsObjects) {
+            return board.store.map();
+        }
+        Map<Integer, Task> allTasks = new LinkedHashMap<>();
+        board.store.forEach(task -> allTasks.put(task.getId(),
+                task.getType() == TaskType.EPIC ? board.epics.get(task.getId()) : task));
+        return Collections.unmodifiableMap(allTasks);
+    }
+
+    public TaskStore getStore() {
+        return board.store;
+    }
+
+    public void close() throws ManagerSaveException {
+        board.store.close();
     }
 
+    // Снимок кэшируется только для хранилища в памяти
     @Override
     public List<Task> getPrioritizedTasks() {
-        return new ArrayList<>(prioritizedTasks);
+        if (!board.keepsObjects) {
+            return prioritized(null, null, 0);
+        }
+        List<Task> snapshot = board.prioritizedSnapshot;
+        if (snapshot == null) {
+            snapshot = List.copyOf(prioritized(null, null, 0));
+            board.prioritizedSnapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    // Полуинтервал [from, to); null снимает границу, limit <= 0 - без ограничения
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        return prioritized(from, to, limit);
+    }
+
+    private List<Task> prioritized(LocalDateTime from, LocalDateTime to, int limit) {
+        if ((from != null) && (to != null) && to.isBefore(from)) {
+            return new ArrayList<>();
+        }
+        NavigableMap<Long, Task> window = board.prioritized;
+        if (from != null) {
+            window = window.tailMap(priorityBound(from), true);
+        }
+        if (to != null) {
+            window = window.headMap(priorityBound(to), false);
+        }
+        List<Task> result = new ArrayList<>();
+        for (Map.Entry<Long, Task> entry : window.entrySet()) {
+            if (limit > 0 && result.size() == limit) break;
+            result.add(entry.getValue() != null ? entry.getValue() : board.find(priorityId(entry.getKey())));
+        }
+        return result;
+    }
+
+    // Без notBefore поиск ведётся от текущего момента
+    @Override
+    public Optional<LocalDateTime> findFreeSlot(Duration duration, LocalDateTime notBefore) {
+        LocalDateTime from = notBefore != null ? notBefore : LocalDateTime.now(clock);
+        return taskIntervals.findFreeSlot(duration, from, getPlanningLimit());
+    }
+
+    // Поиск и добавление - одна операция, поэтому два вызова не получат одно и то же время
+    @Override
+    public void addTaskInFreeSlot(Task task) throws TasksIntersectionException {
+        placeInFreeSlot(task);
+        addTask(task);
+    }
+
+    @Override
+    public void addSubtaskInFreeSlot(Subtask subtask) throws TasksIntersectionException {
+        placeInFreeSlot(subtask);
+        addSubtask(subtask);
+    }
+
+    private void placeInFreeSlot(Task task) throws TasksIntersectionException {
+        if (task == null || task.getStartTime().isPresent() || task.getDuration().isEmpty()) return;
+        LocalDateTime startTime = findFreeSlot(task.getDuration().get(), null)
+                .orElseThrow(() -> new TasksIntersectionException("Для задачи '" + task.getName() + "'"
+                        + " нет свободного времени в пределах горизонта планирования."));
+        task.setStartTime(startTime.format(Task.DATE_FORMATTER));
     }
 
     @Override
     public boolean isNotIntersect(Task taskToCheck) {
-        if (taskToCheck.getStartTime().isEmpty()) return true;
+        if (taskToCheck.getStartTime().isEmpty()) {
+            releaseTaskIntervals(taskToCheck);
+            return true;
+        }
         // Оригинальная реализация без проверки новой таблицы интервалов
         /*uniteTasks();
         Optional<Task> foundTask = prioritizedTasks.stream()
@@ -385,56 +624,246 @@ public class InMemoryTaskManager implements TaskManager {
                     + "' пересекается с " + (foundTask.get().getType() == TaskType.TASK ? "задачей" : "подзадачей")
                     + " '" + foundTask.get().getName() + "'");
         }*/
-        LocalDateTime dateTime = taskToCheck.getStartTime().get();
-        if (taskIntervals.isEmpty()) {
-            while (dateTime.isBefore(taskToCheck.getStartTime().get().plusYears(1))) {
-                taskIntervals.put(dateTime, 0);
-                dateTime = dateTime.plusMinutes(15);
-            }
-            setTaskIntervals(taskToCheck.getId(), taskToCheck.getStartTime().get(), taskToCheck.getEndTime().get());
-            return true;
-        }
-        if (taskIntervals.keySet().stream().toList().getLast().isBefore(taskToCheck.getEndTime().get())) {
+        checkInterval(taskToCheck, taskToCheck.getId());
+        releaseTaskIntervals(taskToCheck);
+        setTaskIntervals(taskToCheck.getId(), taskToCheck.getStartTime().get(), taskToCheck.getEndTime().get());
+        return true;
+    }
+
+    private void checkInterval(Task taskToCheck, int id) throws TasksIntersectionException {
+        LocalDateTime startTime = taskToCheck.getStartTime().get();
+        LocalDateTime endTime = taskToCheck.getEndTime().get();
+        LocalDateTime planningLimit = getPlanningLimit();
+        if (planningLimit.isBefore(endTime)) {
             throw new TasksIntersectionException("Задача '" + taskToCheck.getName() + "'" +
                     " выходит за границу максимального времени планирования задач "
-                    + taskIntervals.keySet().stream().toList().getLast().format(Task.DATE_FORMATTER));
+                    + planningLimit.format(Task.DATE_FORMATTER));
         }
-        while (dateTime.isBefore(taskToCheck.getEndTime().get())) {
-            int taskID = taskIntervals.getOrDefault(dateTime, 0);
-            if ((taskID > 0) && (taskID != taskToCheck.getId())) {
-                throw new TasksIntersectionException("Задача с ID='" + taskToCheck.getId() + "'" +
-                        " пересекается по времени выполнения с задачей с ID='" + taskID + "'");
-            }
-            dateTime = dateTime.plusMinutes(15);
+        Optional<IntervalIndex.Interval> intersection = taskIntervals.findIntersection(startTime, endTime, id);
+        if (intersection.isPresent()) {
+            throw new TasksIntersectionException("Задача с ID='" + id + "'" +
+                    " пересекается по времени выполнения с задачей с ID='" + intersection.get().taskId() + "'");
         }
-        setTaskIntervals(taskToCheck.getId(), taskToCheck.getStartTime().get(), taskToCheck.getEndTime().get());
-        return true;
+    }
+
+    // Горизонт планирования отсчитывается от текущего момента и сдвигается вместе с ним
+    public LocalDateTime getPlanningLimit() {
+        return LocalDateTime.now(clock).plus(planningHorizon);
+    }
+
+    public Period getPlanningHorizon() {
+        return planningHorizon;
     }
 
     @Override
     public void setTaskIntervals(Integer taskID, LocalDateTime startTime, LocalDateTime endTime) {
-        LocalDateTime occupiedTime = startTime;
-        while (occupiedTime.isBefore(endTime)) {
-            taskIntervals.put(occupiedTime, taskID);
-            occupiedTime = occupiedTime.plusMinutes(15);
-        }
+        taskIntervals.add(taskID, startTime, endTime);
     }
 
     @Override
-    public Map<LocalDateTime, Integer> getTaskIntervals() {
-        return Map.copyOf(taskIntervals);
+    public List<IntervalIndex.Interval> getTaskIntervals() {
+        return taskIntervals.getIntervals();
     }
 
     @Override
     public void releaseTaskIntervals(Task task) {
-        List<LocalDateTime> dtList = new ArrayList<>();
-        for (Map.Entry<LocalDateTime, Integer> entry : taskIntervals.entrySet()) {
-            if (entry.getValue() == task.getId()) {
-                dtList.add(entry.getKey());
+        taskIntervals.remove(task.getId());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Task> List<T> listOf(TaskType type) {
+        return (List<T>) board.store.list(type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Task> Map<Integer, T> mapOf(TaskType type) {
+        return (Map<Integer, T>) board.store.map(type);
+    }
+
+    // Индексы доски над хранилищем
+    private static final class Board {
+        final TaskStore store;
+        // Хранилище держит сами объекты: изменения пишутся в него сразу
+        final boolean keepsObjects;
+        final IntervalIndex intervals;
+        final IntHashMap<TaskType> types = new IntHashMap<>();
+        final IntHashMap<Epic> epics = new IntHashMap<>();
+        // Ключ - начало на момент индексации: задачу могут изменить на месте; значение null - задача не в памяти
+        final NavigableMap<Long, Task> prioritized = new TreeMap<>();
+        final IntHashMap<Long> indexedKeys = new IntHashMap<>();
+        // Создаётся лениво, в том числе параллельными читателями
+        volatile List<Task> prioritizedSnapshot;
+        // Изменения текущей операции для внешнего хранилища: null означает удаление
+        final Map<Integer, Task> pendingChanges = new LinkedHashMap<>();
+        // Подзадачи, восстановленные раньше своего эпика
+        final List<Subtask> unlinkedSubtasks = new ArrayList<>();
+        int lastId;
+
+        Board(TaskStore store, IntervalIndex intervals) {
+            this.store = store;
+            this.intervals = intervals;
+            keepsObjects = store.keepsObjects();
+        }
+
+        void restore(Task task) {
+            lastId = Math.max(lastId, task.getId());
+            types.put(task.getId(), task.getType());
+            if (task instanceof Epic epic) {
+                epics.put(epic.getId(), epic);
+                return;
+            }
+            if ((task instanceof Subtask subtask) && !link(subtask)) {
+                unlinkedSubtasks.add(subtask);
             }
+            index(task);
+            task.getStartTime().ifPresent(start -> intervals.add(task.getId(), start, task.getEndTime().get()));
         }
-        for (LocalDateTime localDateTime : dtList) {
-            taskIntervals.remove(localDateTime);
+
+        // Время каждого эпика пересчитывается один раз, после чего эпики попадают в порядок по времени начала
+        void completeRestore() {
+            unlinkedSubtasks.forEach(this::link);
+            unlinkedSubtasks.clear();
+            for (Epic epic : epics.values()) {
+                if (!epic.getSubtaskIds().isEmpty()) {
+                    epic.updateTime();
+                }
+                index(epic);
+            }
+        }
+
+        void clearIndex() {
+            types.clear();
+            epics.clear();
+            prioritized.clear();
+            indexedKeys.clear();
+            prioritizedSnapshot = null;
+            intervals.clear();
+        }
+
+        // Задача, эпик или подзадача по ID без записи в историю просмотров; null, если такой задачи нет
+        Task find(int id) throws ManagerSaveException {
+            TaskType type = types.get(id);
+            if (type == null) return null;
+            return type == TaskType.EPIC ? epics.get(id) : load(id);
+        }
+
+        // Задача или подзадача с учётом изменений текущей операции
+        Task load(int id) throws ManagerSaveException {
+            if (!pendingChanges.isEmpty() && pendingChanges.containsKey(id)) {
+                return pendingChanges.get(id);
+            }
+            return store.get(id);
+        }
+
+        List<Integer> idsOf(TaskType type) {
+            List<Integer> ids = new ArrayList<>();
+            for (Map.Entry<Integer, TaskType> entry : types.entrySet()) {
+                if (entry.getValue() == type) {
+                    ids.add(entry.getKey());
+                }
+            }
+            return ids;
         }
+
+        boolean link(Subtask subtask) {
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic == null) return false;
+            link(epic, subtask);
+            return true;
+        }
+
+        // Эпик над хранилищем в памяти держит сами подзадачи, над внешним - только их ID и сводные данные
+        void link(Epic epic, Subtask subtask) {
+            if (keepsObjects) {
+                epic.updateSubtask(subtask);
+            } else {
+                epic.trackSubtask(subtask);
+            }
+        }
+
+        void unlink(Epic epic, int subtaskId) {
+            if (keepsObjects) {
+                epic.deleteSubtask(subtaskId);
+            } else {
+                epic.untrackSubtask(subtaskId);
+            }
+        }
+
+        void add(Task task) {
+            types.put(task.getId(), task.getType());
+            if (task instanceof Epic epic) {
+                epics.put(epic.getId(), epic);
+            }
+            index(task);
+            if (keepsObjects) {
+                store.put(task);
+            } else {
+                pendingChanges.put(task.getId(), task);
+            }
+        }
+
+        // false, если задачи с таким ID нет на доске
+        boolean remove(int id) {
+            Long indexedKey = indexedKeys.remove(id);
+            if (indexedKey != null) {
+                prioritized.remove(indexedKey);
+                prioritizedSnapshot = null;
+            }
+            if (types.remove(id) == null) return false;
+            epics.remove(id);
+            if (keepsObjects) {
+                store.remove(id);
+            } else {
+                pendingChanges.put(id, null);
+            }
+            return true;
+        }
+
+        void index(Task task) {
+            if (task.getStartTime().isPresent()) {
+                boolean inMemory = keepsObjects || (task instanceof Epic);
+                Long key = priorityKey(task.getStartTime().get(), task.getId());
+                prioritized.put(key, inMemory ? task : null);
+                indexedKeys.put(task.getId(), key);
+                prioritizedSnapshot = null;
+            }
+        }
+
+        // Изменения операции записываются в хранилище одним пакетом
+        void save() throws ManagerSaveException {
+            if (!pendingChanges.isEmpty()) {
+                for (Map.Entry<Integer, Task> change : pendingChanges.entrySet()) {
+                    if (change.getValue() != null) {
+                        store.put(change.getValue());
+                    } else {
+                        store.remove(change.getKey());
+                    }
+                }
+                pendingChanges.clear();
+            }
+            store.flush();
+        }
+    }
+
+    // Минута начала в старших 33 битах, ID в младших 31
+    private static long priorityKey(LocalDateTime startTime, int id) {
+        return clampMinute(Math.floorDiv(startTime.toEpochSecond(ZoneOffset.UTC), 60)) << 31 | id;
+    }
+
+    // Граница диапазона - первая целая минута не раньше time с ID 0: перед всеми задачами этой минуты
+    private static long priorityBound(LocalDateTime time) {
+        long minute = Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+        if (time.getSecond() != 0 || time.getNano() != 0) {
+            minute++;
+        }
+        return clampMinute(minute) << 31;
+    }
+
+    private static long clampMinute(long minute) {
+        return Math.max(MIN_PRIORITY_MINUTE, Math.min(MAX_PRIORITY_MINUTE, minute));
+    }
+
+    private static int priorityId(long key) {
+        return (int) (key & Integer.MAX_VALUE);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,69 @@
+package tracker.controllers;
+
+import tracker.exceptions.NotFoundException;
+import tracker.model.Subtask;
+import tracker.model.Task;
+import tracker.model.TaskType;
+import tracker.store.CachingTaskStore;
+import tracker.store.JdbcTaskStore;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.*;
+
+// Выборки по времени и подзадачи эпика идут запросом к таблице, минуя кэш
+public class JdbcTaskManager extends InMemoryTaskManager {
+    private final JdbcTaskStore store;
+    private final CachingTaskStore cache;
+
+    public JdbcTaskManager(String url) {
+        this(new JdbcTaskStore(url), InMemoryTaskManager.DEFAULT_PLANNING_HORIZON, Clock.systemDefaultZone());
+    }
+
+    public JdbcTaskManager(JdbcTaskStore store, Period planningHorizon, Clock clock) {
+        this(store, new CachingTaskStore(store), planningHorizon, clock);
+    }
+
+    private JdbcTaskManager(JdbcTaskStore store, CachingTaskStore cache, Period planningHorizon, Clock clock) {
+        super(cache, planningHorizon, clock);
+        this.store = store;
+        this.cache = cache;
+    }
+
+    @Override
+    public Map<Integer, Subtask> getEpicSubtasks(int epicID) throws NotFoundException {
+        if (!getEpicsMap().containsKey(epicID)) {
+            throw new NotFoundException("Эпик с ID='" + epicID + "' не найден.");
+        }
+        Map<Integer, Subtask> result = new LinkedHashMap<>();
+        for (Task subtask : store.findByEpic(epicID)) {
+            result.put(subtask.getId(), (Subtask) subtask);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return getPrioritizedTasks(null, null, 0);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        List<Task> result = new ArrayList<>();
+        for (Task task : store.findByStartTime(from, to, limit)) {
+            result.add(task.getType() == TaskType.EPIC ? getEpicsMap().get(task.getId()) : task);
+        }
+        return result;
+    }
+
+    @Override
+    public JdbcTaskStore getStore() {
+        return store;
+    }
+
+    // Число задач в кэше; для проверки того, что выборки идут мимо него
+    int getCachedTasks() {
+        return cache.getCachedTasks();
+    }
+}
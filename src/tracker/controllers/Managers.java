@@ -8,6 +8,15 @@ public class Managers {
         return new InMemoryTaskManager();
     }
 
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager();
+    }
+
+    // url - адрес встроенной базы данных, например "jdbc:h2:file:./kanban"; драйвер должен быть в classpath
+    public static TaskManager getJdbc(String url) {
+        return new JdbcTaskManager(url);
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
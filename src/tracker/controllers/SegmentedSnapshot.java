@@ -0,0 +1,122 @@
+package tracker.controllers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+// Страница N - задачи с ID из N-го диапазона SEGMENT_IDS; оборванная страница видна по контрольной сумме
+final class SegmentedSnapshot {
+    static final int SEGMENT_IDS = 64;
+    static final int HEADER_BYTES = 16;
+    // Последний выданный ID перезаписывается на месте вместе со страницами
+    static final long LAST_ID_OFFSET = 12;
+    private static final int MAGIC = 0x4B414E53;
+    private static final short VERSION = 1;
+    private static final int PAGE_HEADER_BYTES = 8;
+    private static final int MIN_PAGE_BYTES = 4096;
+    private static final int PAGE_ALIGNMENT = 512;
+
+    private SegmentedSnapshot() {
+    }
+
+    static boolean isSegmented(ByteBuffer header) {
+        return header.remaining() >= HEADER_BYTES && header.getInt(header.position()) == MAGIC;
+    }
+
+    static int segmentOf(int id) {
+        return Math.floorDiv(id, SEGMENT_IDS);
+    }
+
+    static long offsetOf(int segment, int pageSize) {
+        return HEADER_BYTES + (long) segment * pageSize;
+    }
+
+    static boolean fits(byte[] content, int pageSize) {
+        return PAGE_HEADER_BYTES + content.length <= pageSize;
+    }
+
+    // Размер страницы с запасом на рост самой большой из них, чтобы правки не требовали полной перезаписи
+    static int pageSizeFor(int largestContent) {
+        long size = Math.max(MIN_PAGE_BYTES, (PAGE_HEADER_BYTES + (long) largestContent) * 5 / 4);
+        size = (size + PAGE_ALIGNMENT - 1) / PAGE_ALIGNMENT * PAGE_ALIGNMENT;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Страница снимка превышает 2 ГБ.");
+        }
+        return (int) size;
+    }
+
+    // Заголовок страницы и содержимое без заполнения до размера страницы: хвост прежнего содержимого
+    // отсекается длиной
+    static byte[] page(byte[] content) {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        return ByteBuffer.allocate(PAGE_HEADER_BYTES + content.length)
+                .putInt(content.length)
+                .putInt((int) crc.getValue())
+                .put(content)
+                .array();
+    }
+
+    static byte[] lastId(int lastId) {
+        return ByteBuffer.allocate(Integer.BYTES).putInt(lastId).array();
+    }
+
+    static int lastId(ByteBuffer header) {
+        return header.getInt(header.position() + (int) LAST_ID_OFFSET);
+    }
+
+    static byte[] encode(SortedMap<Integer, byte[]> contents, int pageSize, int lastId) {
+        int segments = contents.isEmpty() ? 0 : contents.lastKey() + 1;
+        ByteBuffer file = ByteBuffer.allocate(Math.toIntExact(offsetOf(segments, pageSize)));
+        file.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(pageSize).putInt(lastId);
+        for (Map.Entry<Integer, byte[]> content : contents.entrySet()) {
+            file.put(Math.toIntExact(offsetOf(content.getKey(), pageSize)), page(content.getValue()));
+        }
+        return file.array();
+    }
+
+    static int pageSize(ByteBuffer buffer) throws IOException {
+        short version = buffer.getShort(buffer.position() + Integer.BYTES);
+        if (version != VERSION) {
+            throw new IOException("Неподдерживаемая версия снимка по страницам: " + version);
+        }
+        return buffer.getInt(buffer.position() + 2 * Integer.BYTES);
+    }
+
+    static void decode(ByteBuffer buffer, Consumer<String> rows) throws IOException {
+        int pageSize = pageSize(buffer);
+        int segment = 0;
+        for (long offset = HEADER_BYTES; offset < buffer.limit(); offset += pageSize, segment++) {
+            if (buffer.limit() - offset < PAGE_HEADER_BYTES) {
+                throw new IOException("Страница " + segment + " записана не полностью.");
+            }
+            int length = buffer.getInt((int) offset);
+            if (length == 0) continue;
+            if (length < 0 || length > pageSize - PAGE_HEADER_BYTES
+                    || offset + PAGE_HEADER_BYTES + length > buffer.limit()) {
+                throw new IOException("Страница " + segment + " повреждена.");
+            }
+            byte[] content = new byte[length];
+            buffer.get((int) offset + PAGE_HEADER_BYTES, content);
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            if ((int) crc.getValue() != buffer.getInt((int) offset + Integer.BYTES)) {
+                throw new IOException("Страница " + segment + " повреждена.");
+            }
+            String text = new String(content, StandardCharsets.UTF_8);
+            int start = 0;
+            while (start < text.length()) {
+                int end = text.indexOf('\n', start);
+                if (end < 0) {
+                    end = text.length();
+                }
+                rows.accept(text.substring(start, end));
+                start = end + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package tracker.controllers;
+
+import tracker.model.Subtask;
+import tracker.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+// Подзадача лежит в файле своего эпика
+final class ShardedSnapshot {
+    static final int SHARD_BLOCK_IDS = 64;
+    private static final String MANIFEST = "SHARDS,";
+
+    private ShardedSnapshot() {
+    }
+
+    static boolean isSharded(ByteBuffer header) {
+        byte[] prefix = MANIFEST.getBytes(StandardCharsets.US_ASCII);
+        if (header.remaining() < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (header.get(header.position() + i) != prefix[i]) return false;
+        }
+        return true;
+    }
+
+    record Manifest(int shards, int lastId) {
+    }
+
+    static byte[] manifest(int shards, int lastId) {
+        return (MANIFEST + shards + "," + lastId + "\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    static Manifest readManifest(File file) throws IOException {
+        String manifest = Files.readString(file.toPath(), StandardCharsets.US_ASCII).trim();
+        try {
+            String[] fields = manifest.substring(MANIFEST.length()).split(",");
+            if (fields.length != 2) {
+                throw new IOException("Заголовок доски из нескольких файлов повреждён: '" + manifest + "'");
+            }
+            int shards = Integer.parseInt(fields[0]);
+            if (shards < 1) {
+                throw new IOException("Неверное число файлов доски: " + shards);
+            }
+            return new Manifest(shards, Integer.parseInt(fields[1]));
+        } catch (NumberFormatException e) {
+            throw new IOException("Заголовок доски из нескольких файлов повреждён: '" + manifest + "'");
+        }
+    }
+
+    static File shardFile(File file, int shard) {
+        return new File(file.getPath() + ".shard" + shard);
+    }
+
+    static int shardOf(Task task, int shards) {
+        return shardOf(task instanceof Subtask subtask ? subtask.getEpicId() : task.getId(), shards);
+    }
+
+    static int shardOf(int id, int shards) {
+        return Math.floorMod(Math.floorDiv(id, SHARD_BLOCK_IDS), shards);
+    }
+}
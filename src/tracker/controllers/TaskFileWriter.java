@@ -0,0 +1,461 @@
+package tracker.controllers;
+
+import tracker.exceptions.ManagerSaveException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+// В памяти не больше одного ожидающего снимка: новый вытесняет прежний
+class TaskFileWriter {
+    private static final long IDLE_POLL_MILLIS = 100;
+    static final int MAX_PENDING_RECORDS = 65_536;
+    private final File file;
+    private final File journalFile;
+    private final File pageLogFile;
+    private final FileBackedTaskManager.WriteOptions writeOptions;
+    private final Thread writerThread;
+    // Защищает ожидающие задания и счётчики заданий
+    private final Object progress = new Object();
+    private byte[] pendingSnapshot;
+    private final List<String> pendingRecords = new ArrayList<>();
+    private final Map<Long, byte[]> pendingPages = new TreeMap<>();
+    private int pendingJobs;
+    private long submittedJobs;
+    private long takenJobs;
+    private long writtenJobs;
+    private volatile boolean running;
+    private volatile boolean closed;
+    private volatile IOException failure;
+    private volatile long lastFlushNanos;
+    private long lastSyncNanos;
+    private boolean unsynced;
+    // Конец последней целиком записанной записи журнала; -1, пока журнал не открывался
+    private long journalEnd = -1;
+
+    // Снимок полностью заменяет файл и удаляет журнал, записи журнала дописываются в его конец,
+    // страницы (смещение в файле - содержимое) записываются поверх прежних на своих местах
+    record WriteJob(byte[] snapshot, List<String> records, Map<Long, byte[]> pages) {
+        static WriteJob snapshot(byte[] content) {
+            return new WriteJob(content, List.of(), Map.of());
+        }
+
+        static WriteJob journal(List<String> records) {
+            return new WriteJob(null, records, Map.of());
+        }
+
+        static WriteJob pages(Map<Long, byte[]> pages) {
+            return new WriteJob(null, List.of(), pages);
+        }
+    }
+
+    TaskFileWriter(File file, File journalFile, FileBackedTaskManager.WriteOptions writeOptions) {
+        this.file = file;
+        this.journalFile = journalFile;
+        this.pageLogFile = pageLogFile(file);
+        this.writeOptions = writeOptions;
+        lastSyncNanos = System.nanoTime();
+        if (writeOptions.writeBehind()) {
+            running = true;
+            writerThread = new Thread(this::writeLoop, "task-file-writer-" + file.getName());
+            writerThread.setDaemon(true);
+            writerThread.start();
+        } else {
+            writerThread = null;
+        }
+    }
+
+    void submit(WriteJob job) throws ManagerSaveException {
+        checkFailure();
+        if (closed) {
+            throw new ManagerSaveException("Запись в файл '" + file.getAbsolutePath() + "' после его закрытия.");
+        }
+        if (writerThread == null) {
+            try {
+                write(job);
+            } catch (IOException e) {
+                throw saveException(e);
+            }
+            return;
+        }
+        synchronized (progress) {
+            while (pendingRecords.size() >= MAX_PENDING_RECORDS && failure == null && writerThread.isAlive()) {
+                awaitProgress();
+            }
+            checkFailure();
+            if (job.snapshot() != null) {
+                pendingSnapshot = job.snapshot();
+                pendingRecords.clear();
+                pendingPages.clear();
+            }
+            pendingRecords.addAll(job.records());
+            pendingPages.putAll(job.pages());
+            pendingJobs++;
+            submittedJobs++;
+            progress.notifyAll();
+        }
+    }
+
+    // Дожидается записи всех поставленных в очередь заданий и сбрасывает файлы на диск,
+    // если политика синхронизации это предусматривает
+    void flush() throws ManagerSaveException {
+        if (writerThread != null) {
+            synchronized (progress) {
+                long target = submittedJobs;
+                while (writtenJobs < target && failure == null && writerThread.isAlive()) {
+                    awaitProgress();
+                }
+            }
+        }
+        checkFailure();
+        if (writeOptions.syncPolicy() != FileBackedTaskManager.SyncPolicy.NEVER) {
+            synchronized (this) {
+                try {
+                    sync();
+                } catch (IOException e) {
+                    throw saveException(e);
+                }
+            }
+        }
+    }
+
+    void close() throws ManagerSaveException {
+        if (closed) return;
+        closed = true;
+        try {
+            flush();
+        } finally {
+            if (writerThread != null) {
+                running = false;
+                writerThread.interrupt();
+            }
+        }
+    }
+
+    // Число поставленных, но ещё не взятых фоновым потоком заданий
+    int getQueueDepth() {
+        synchronized (progress) {
+            return pendingJobs;
+        }
+    }
+
+    // Объём ожидающих записи данных в байтах
+    long getPendingBytes() {
+        synchronized (progress) {
+            long bytes = pendingSnapshot == null ? 0 : pendingSnapshot.length;
+            for (String record : pendingRecords) {
+                bytes += record.length();
+            }
+            for (byte[] page : pendingPages.values()) {
+                bytes += page.length;
+            }
+            return bytes;
+        }
+    }
+
+    Duration getLastFlushLatency() {
+        return Duration.ofNanos(lastFlushNanos);
+    }
+
+    private void awaitProgress() throws ManagerSaveException {
+        try {
+            progress.wait(IDLE_POLL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException("Ожидание записи в файл '" + file.getAbsolutePath() + "' прервано.");
+        }
+    }
+
+    private void writeLoop() {
+        while (running) {
+            try {
+                WriteJob job = take();
+                if (job == null) {
+                    synchronized (this) {
+                        syncIfDue();
+                    }
+                    continue;
+                }
+                write(job);
+                synchronized (progress) {
+                    writtenJobs = takenJobs;
+                    progress.notifyAll();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                failure = e;
+                synchronized (progress) {
+                    progress.notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    // Забирает ожидающие задания одним объединённым; null, если за время ожидания заданий не появилось
+    private WriteJob take() throws InterruptedException {
+        synchronized (progress) {
+            if (pendingJobs == 0) {
+                progress.wait(pollMillis());
+                if (pendingJobs == 0) return null;
+            }
+            WriteJob job = new WriteJob(pendingSnapshot, List.copyOf(pendingRecords), new TreeMap<>(pendingPages));
+            takenJobs += pendingJobs;
+            pendingJobs = 0;
+            pendingSnapshot = null;
+            pendingRecords.clear();
+            pendingPages.clear();
+            // Будит потоки, ждущие места для записей журнала
+            progress.notifyAll();
+            return job;
+        }
+    }
+
+    private synchronized void write(WriteJob job) throws IOException {
+        long start = System.nanoTime();
+        boolean syncNow = isSyncDue();
+        if (job.snapshot() != null) {
+            writeSnapshot(job.snapshot(), syncNow);
+        }
+        if (!job.records().isEmpty()) {
+            appendJournal(job.records());
+        }
+        if (!job.pages().isEmpty()) {
+            writePages(job.pages());
+        }
+        if (!job.records().isEmpty() || !job.pages().isEmpty()) {
+            unsynced = true;
+            if (syncNow) {
+                sync();
+            }
+        }
+        lastFlushNanos = System.nanoTime() - start;
+    }
+
+    // Журнал переименовывается в .retired до замены снимка и не применяется поверх нового (см. completeSnapshot)
+    private void writeSnapshot(byte[] content, boolean syncNow) throws IOException {
+        // Журнал страниц относится к прежнему файлу: после замены файла его нельзя применять
+        if (pageLogFile.exists()) {
+            force(file);
+            Files.delete(pageLogFile.toPath());
+        }
+        File snapshotFile = snapshotFile(file);
+        try (OutputStream output = new FileOutputStream(snapshotFile)) {
+            output.write(content);
+        }
+        if (syncNow) {
+            force(snapshotFile);
+        }
+        File retiredJournalFile = retiredJournalFile(journalFile);
+        if (journalFile.exists()) {
+            move(journalFile, retiredJournalFile);
+        }
+        move(snapshotFile, file);
+        Files.deleteIfExists(retiredJournalFile.toPath());
+        journalEnd = 0;
+        unsynced = !syncNow;
+        if (syncNow) {
+            lastSyncNanos = System.nanoTime();
+        }
+    }
+
+    static File snapshotFile(File file) {
+        return new File(file.getPath() + ".tmp");
+    }
+
+    static File retiredJournalFile(File journalFile) {
+        return new File(journalFile.getPath() + ".retired");
+    }
+
+    // Доводит до конца замену снимка, прерванную после того, как журнал был выведен из оборота: снимок
+    // во временном файле к этому моменту записан целиком и содержит все записи журнала
+    static void completeSnapshot(File file, File journalFile) throws IOException {
+        File retiredJournalFile = retiredJournalFile(journalFile);
+        if (!retiredJournalFile.exists()) return;
+        File snapshotFile = snapshotFile(file);
+        if (snapshotFile.exists()) {
+            move(snapshotFile, file);
+        }
+        Files.delete(retiredJournalFile.toPath());
+    }
+
+    private static void move(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Хвост после конца последней целой записи остаётся от прерванной записи и отрезается,
+    // чтобы новые записи не склеились с обрывком
+    private void appendJournal(List<String> records) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (String record : records) {
+            bytes.write(record.getBytes(StandardCharsets.UTF_8));
+            bytes.write('\n');
+        }
+        try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            if (journalEnd < 0) {
+                journalEnd = channel.size();
+            } else if (channel.size() > journalEnd) {
+                channel.truncate(journalEnd);
+            }
+            ByteBuffer content = ByteBuffer.wrap(bytes.toByteArray());
+            long position = journalEnd;
+            while (content.hasRemaining()) {
+                position += channel.write(content, position);
+            }
+            journalEnd = position;
+        }
+    }
+
+    // Оборванная при сбое страница восстанавливается из журнала страниц
+    private void writePages(Map<Long, byte[]> pages) throws IOException {
+        boolean durable = writeOptions.syncPolicy() != FileBackedTaskManager.SyncPolicy.NEVER;
+        appendPageLog(pageLogFile, pages, durable);
+        overwritePages(file, pages);
+        if (!durable) {
+            Files.delete(pageLogFile.toPath());
+        }
+    }
+
+    static File pageLogFile(File file) {
+        return new File(file.getPath() + ".pages");
+    }
+
+    // Блок журнала страниц: число страниц, для каждой - смещение, длина и содержимое, в конце CRC32 блока
+    static void appendPageLog(File pageLogFile, Map<Long, byte[]> pages, boolean force) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(pages.size());
+        for (Map.Entry<Long, byte[]> page : pages.entrySet()) {
+            output.writeLong(page.getKey());
+            output.writeInt(page.getValue().length);
+            output.write(page.getValue());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        output.writeLong(crc.getValue());
+        try (FileOutputStream stream = new FileOutputStream(pageLogFile, true)) {
+            stream.write(bytes.toByteArray());
+            if (force) {
+                stream.getChannel().force(false);
+            }
+        }
+    }
+
+    // Последний блок мог оборваться только до записи его страниц в файл
+    static void restorePages(File file) throws IOException {
+        File pageLogFile = pageLogFile(file);
+        if (!pageLogFile.exists()) return;
+        ByteBuffer log = ByteBuffer.wrap(Files.readAllBytes(pageLogFile.toPath()));
+        Map<Long, byte[]> pages = new TreeMap<>();
+        while (log.remaining() >= Integer.BYTES) {
+            Map<Long, byte[]> block = readPageLogBlock(log);
+            if (block == null) break;
+            pages.putAll(block);
+        }
+        if (!pages.isEmpty()) {
+            overwritePages(file, pages);
+            force(file);
+        }
+        Files.delete(pageLogFile.toPath());
+    }
+
+    private static Map<Long, byte[]> readPageLogBlock(ByteBuffer log) {
+        int start = log.position();
+        int count = log.getInt();
+        Map<Long, byte[]> block = new TreeMap<>();
+        for (int i = 0; i < count; i++) {
+            if (log.remaining() < Long.BYTES + Integer.BYTES) return null;
+            long offset = log.getLong();
+            int length = log.getInt();
+            if (length < 0 || log.remaining() < length) return null;
+            byte[] page = new byte[length];
+            log.get(page);
+            block.put(offset, page);
+        }
+        if (log.remaining() < Long.BYTES) return null;
+        CRC32 crc = new CRC32();
+        crc.update(log.array(), start, log.position() - start);
+        return crc.getValue() == log.getLong() ? block : null;
+    }
+
+    private static void overwritePages(File file, Map<Long, byte[]> pages) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            for (Map.Entry<Long, byte[]> page : pages.entrySet()) {
+                ByteBuffer content = ByteBuffer.wrap(page.getValue());
+                long position = page.getKey();
+                while (content.hasRemaining()) {
+                    position += channel.write(content, position);
+                }
+            }
+        }
+    }
+
+    private boolean isSyncDue() {
+        return switch (writeOptions.syncPolicy()) {
+            case EVERY_WRITE -> true;
+            case INTERVAL -> System.nanoTime() - lastSyncNanos >= writeOptions.syncInterval().toNanos();
+            case NEVER -> false;
+        };
+    }
+
+    private void syncIfDue() {
+        if (unsynced && writeOptions.syncPolicy() == FileBackedTaskManager.SyncPolicy.INTERVAL && isSyncDue()) {
+            try {
+                sync();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    private void sync() throws IOException {
+        if (!unsynced) return;
+        force(file);
+        force(journalFile);
+        Files.deleteIfExists(pageLogFile.toPath());
+        unsynced = false;
+        lastSyncNanos = System.nanoTime();
+    }
+
+    private long pollMillis() {
+        if (writeOptions.syncPolicy() != FileBackedTaskManager.SyncPolicy.INTERVAL) return IDLE_POLL_MILLIS;
+        return Math.max(1, Math.min(IDLE_POLL_MILLIS, writeOptions.syncInterval().toMillis()));
+    }
+
+    private static void force(File target) throws IOException {
+        if (!target.exists()) return;
+        try (FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.WRITE)) {
+            channel.force(false);
+        }
+    }
+
+    private void checkFailure() throws ManagerSaveException {
+        IOException e = failure;
+        if (e != null) {
+            throw saveException(e);
+        }
+    }
+
+    private ManagerSaveException saveException(IOException e) {
+        return new ManagerSaveException("Возникла ошибка при записи данных в файл '" + file.getAbsolutePath()
+                + "': " + e.getMessage());
+    }
+}
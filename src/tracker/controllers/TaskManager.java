@@ -3,12 +3,14 @@ package tracker.controllers;
 import tracker.model.Epic;
 import tracker.model.Subtask;
 import tracker.model.Task;
+import tracker.schedule.IntervalIndex;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 
 public interface TaskManager {
-    ArrayList<Task> getTasks();
+    List<Task> getTasks();
 
     void clearTasks();
 
@@ -20,7 +22,7 @@ public interface TaskManager {
 
     void deleteTask(int id);
 
-    ArrayList<Epic> getEpics();
+    List<Epic> getEpics();
 
     void clearEpics();
 
@@ -36,9 +38,9 @@ public interface TaskManager {
 
     void updateEpicTime(Epic epic);
 
-    HashMap<Integer, Subtask> getEpicSubtasks(int epicID);
+    Map<Integer, Subtask> getEpicSubtasks(int epicID);
 
-    ArrayList<Subtask> getSubtasks();
+    List<Subtask> getSubtasks();
 
     void clearSubtasks();
 
@@ -50,6 +52,12 @@ public interface TaskManager {
 
     void deleteSubtask(int id);
 
+    void addAll(Collection<? extends Task> items);
+
+    void updateAll(Map<Integer, ? extends Task> items);
+
+    void deleteAll(Collection<Integer> ids);
+
     List<Task> getHistory();
 
     Map<Integer, Task> getTasksMap();
@@ -60,11 +68,19 @@ public interface TaskManager {
 
     List<Task> getPrioritizedTasks();
 
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit);
+
+    Optional<LocalDateTime> findFreeSlot(Duration duration, LocalDateTime notBefore);
+
+    void addTaskInFreeSlot(Task task);
+
+    void addSubtaskInFreeSlot(Subtask subtask);
+
     boolean isNotIntersect(Task taskToCheck);
 
     void setTaskIntervals(Integer taskID, LocalDateTime startTime, LocalDateTime endTime);
 
-    Map<LocalDateTime, Integer> getTaskIntervals();
+    List<IntervalIndex.Interval> getTaskIntervals();
 
     void releaseTaskIntervals(Task task);
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+package tracker.history;
+
+import tracker.exceptions.ManagerSaveException;
+import tracker.model.Task;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.SequencedSet;
+import java.util.function.IntFunction;
+
+// Журнал просмотров: строка - ID задачи или "-ID" для удалённой; читается при первом обращении к истории
+public class FileBackedHistoryManager extends InMemoryHistoryManager {
+    static final int BATCH_RECORDS = 256;
+    private static final int MIN_LOG_RECORDS = 1000;
+    private final File logFile;
+    private IntFunction<Task> resolver = id -> null;
+    private boolean loaded;
+    private int logRecords;
+    private int unflushedRecords;
+    private Writer writer;
+
+    public FileBackedHistoryManager(File logFile) {
+        this.logFile = logFile;
+    }
+
+    // Задаётся до первого обращения к истории; ID, для которых resolver вернул null, в историю не попадают
+    public synchronized void setTaskResolver(IntFunction<Task> resolver) {
+        this.resolver = resolver;
+    }
+
+    public File getLogFile() {
+        return logFile;
+    }
+
+    @Override
+    public synchronized void add(Task task) {
+        load();
+        super.add(task);
+        append(String.valueOf(task.getId()));
+    }
+
+    @Override
+    public synchronized void remove(int taskID) {
+        load();
+        if (!contains(taskID)) return;
+        super.remove(taskID);
+        append("-" + taskID);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        load();
+        return super.getHistory();
+    }
+
+    // Записывает накопленные записи в файл
+    public synchronized void flush() throws ManagerSaveException {
+        if (writer == null || unflushedRecords == 0) return;
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw saveException(e);
+        }
+        unflushedRecords = 0;
+    }
+
+    public synchronized void close() throws ManagerSaveException {
+        if (writer == null) return;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw saveException(e);
+        } finally {
+            writer = null;
+            unflushedRecords = 0;
+        }
+    }
+
+    // Последняя строка без перевода строки могла быть записана не полностью: она пропускается и отрезается от файла,
+    // чтобы следующая запись не склеилась с ней
+    private void load() throws ManagerSaveException {
+        if (loaded) return;
+        loaded = true;
+        if (!logFile.exists()) return;
+        SequencedSet<Integer> order = new LinkedHashSet<>();
+        try {
+            byte[] contents = Files.readAllBytes(logFile.toPath());
+            int end = contents.length;
+            while (end > 0 && contents[end - 1] != '\n') {
+                end--;
+            }
+            for (String record : new String(contents, 0, end, StandardCharsets.UTF_8).split("\n")) {
+                if (record.isBlank()) continue;
+                if (record.startsWith("-")) {
+                    order.remove(Integer.parseInt(record.substring(1)));
+                } else {
+                    order.addLast(Integer.parseInt(record));
+                }
+                logRecords++;
+            }
+            if (end < contents.length) {
+                try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.WRITE)) {
+                    channel.truncate(end);
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new ManagerSaveException("Возникла ошибка при загрузке истории просмотров из файла '"
+                    + logFile.getAbsolutePath() + "': " + e.getMessage());
+        }
+        for (int id : order) {
+            Task task = resolver.apply(id);
+            if (task != null) {
+                linkLast(task);
+            }
+        }
+        // Задачи, удалённые с доски без записи в журнал, из него убираются
+        if (size() != order.size() || logRecords > compactionThreshold()) {
+            compact();
+        }
+    }
+
+    private void append(String record) throws ManagerSaveException {
+        if (++logRecords > compactionThreshold()) {
+            compact();
+            return;
+        }
+        try {
+            if (writer == null) {
+                writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(logFile, true),
+                        StandardCharsets.UTF_8));
+            }
+            writer.write(record);
+            writer.write("\n");
+        } catch (IOException e) {
+            throw saveException(e);
+        }
+        if (++unflushedRecords >= BATCH_RECORDS) {
+            flush();
+        }
+    }
+
+    private int compactionThreshold() {
+        return Math.max(MIN_LOG_RECORDS, 2 * size());
+    }
+
+    // Новый журнал пишется во временный файл и атомарно заменяет прежний
+    private void compact() throws ManagerSaveException {
+        close();
+        List<Task> history = getTasks();
+        File compactFile = new File(logFile.getPath() + ".tmp");
+        try {
+            try (Writer output = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(compactFile),
+                    StandardCharsets.UTF_8))) {
+                for (Task task : history) {
+                    output.write(task.getId() + "\n");
+                }
+            }
+            try {
+                Files.move(compactFile.toPath(), logFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(compactFile.toPath(), logFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw saveException(e);
+        }
+        logRecords = history.size();
+    }
+
+    private ManagerSaveException saveException(IOException e) {
+        return new ManagerSaveException("Возникла ошибка при записи истории просмотров в файл '"
+                + logFile.getAbsolutePath() + "': " + e.getMessage());
+    }
+}
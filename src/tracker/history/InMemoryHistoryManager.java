@@ -27,6 +27,14 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
     }
 
+    protected boolean contains(int taskID) {
+        return nodes.containsKey(taskID);
+    }
+
+    protected int size() {
+        return nodes.size();
+    }
+
     public void removeNode(Node node) {
         if (node.prev != null) {
             node.prev.next = node.next;
@@ -0,0 +1,29 @@
+package tracker.history;
+
+import tracker.model.Task;
+
+import java.util.List;
+
+// История под собственным монитором: просмотры из параллельных читателей доски записываются по одному
+public class SynchronizedHistoryManager implements HistoryManager {
+    private final HistoryManager historyManager;
+
+    public SynchronizedHistoryManager(HistoryManager historyManager) {
+        this.historyManager = historyManager;
+    }
+
+    @Override
+    public synchronized void add(Task task) {
+        historyManager.add(task);
+    }
+
+    @Override
+    public synchronized void remove(int id) {
+        historyManager.remove(id);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+}
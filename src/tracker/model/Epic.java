@@ -1,22 +1,53 @@
 package tracker.model;
 
+import tracker.collections.IntHashMap;
+
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Optional;
+import java.util.*;
 
 public class Epic extends Task {
-    private HashMap<Integer, Subtask> subtasks;
+    private IntHashMap<Subtask> subtasks;
     private LocalDateTime endTime;
+    // Сводные данные по подзадачам, обновляемые при каждом изменении состава эпика.
+    // Поля не сериализуются и восстанавливаются из subtasks при первом обращении.
+    private transient int newSubtasks;
+    private transient int doneSubtasks;
+    private transient long subtasksMinutes;
+    private transient NavigableMap<LocalDateTime, Integer> subtasksStarts;
+    private transient NavigableMap<LocalDateTime, Integer> subtasksEnds;
+    // Значения, с которыми каждая подзадача учтена в сводных данных. Подзадачу могут изменить на месте
+    // и передать тот же объект в updateSubtask(), поэтому вычитаются запомненные, а не текущие значения.
+    private transient IntHashMap<Included> included;
+    // Таблицы общие с копией эпика: перед первым изменением эпик заводит собственные
+    private transient boolean shared;
+
+    private record Included(TaskStatus status, long minutes, LocalDateTime startTime, LocalDateTime endTime) {
+    }
 
     public Epic(String name, String description) {
         super(name, description);
-        subtasks = new HashMap<>();
+        subtasks = new IntHashMap<>();
     }
 
     public Epic(String name, String description, int id, String status) {
         super(name, description, id, status);
-        subtasks = new HashMap<>();
+        subtasks = new IntHashMap<>();
+    }
+
+    // Копия делит с эпиком таблицы подзадач и сводных данных; сами подзадачи не копируются
+    public Epic(Epic epic) {
+        super(epic.name, epic.description, epic.id, epic.status, epic.startTime, epic.duration);
+        endTime = epic.endTime;
+        subtasks = epic.subtasks;
+        newSubtasks = epic.newSubtasks;
+        doneSubtasks = epic.doneSubtasks;
+        subtasksMinutes = epic.subtasksMinutes;
+        subtasksStarts = epic.subtasksStarts;
+        subtasksEnds = epic.subtasksEnds;
+        included = epic.included;
+        shared = true;
+        epic.shared = true;
     }
 
     @Override
@@ -38,28 +69,149 @@ public class Epic extends Task {
         return TaskType.EPIC;
     }
 
-    public HashMap<Integer, Subtask> getSubtasks() {
-        return subtasks;
+    // Только чтение: сводные данные здесь не пересчитываются, поэтому метод безопасно вызывать
+    // параллельно из нескольких потоков, пока эпик не изменяется
+    public Map<Integer, Subtask> getSubtasks() {
+        return subtasks == null ? Map.of() : Collections.unmodifiableMap(subtasks);
     }
 
     public void addSubtask(Task subtask) {
         if (!(subtask instanceof Subtask)) {
             return;
         }
-        if (subtasks == null) {
-            subtasks = new HashMap<>();
-        }
+        ownTables();
+        ensureAggregates();
         if (!subtasks.containsKey(subtask.getId())) {
             subtasks.put(subtask.getId(), (Subtask) subtask);
+            include((Subtask) subtask);
         }
     }
 
+    public void updateSubtask(Subtask subtask) {
+        ownTables();
+        ensureAggregates();
+        subtasks.put(subtask.getId(), subtask);
+        exclude(subtask.getId());
+        include(subtask);
+    }
+
     public void deleteSubtask(int id) {
-        subtasks.remove(id);
+        ownTables();
+        ensureAggregates();
+        if (subtasks.remove(id) != null) {
+            exclude(id);
+        }
+    }
+
+    // Учитывает подзадачу в сводных данных, не сохраняя сам объект в эпике: так работает менеджер, который
+    // держит подзадачи в хранилище и выдаёт их через getEpicSubtasks(). Повторный вызов заменяет прежние значения.
+    public void trackSubtask(Subtask subtask) {
+        ownTables();
+        ensureAggregates();
+        exclude(subtask.getId());
+        include(subtask);
+    }
+
+    public void untrackSubtask(int id) {
+        ownTables();
+        ensureAggregates();
+        exclude(id);
+    }
+
+    // ID подзадач, учтённых в сводных данных, по возрастанию
+    public List<Integer> getSubtaskIds() {
+        List<Integer> ids = new ArrayList<>(included != null ? included.keySet() : getSubtasks().keySet());
+        Collections.sort(ids);
+        return ids;
     }
 
     public void deleteSubtasks() {
-        subtasks = new HashMap<>();
+        subtasks = new IntHashMap<>();
+        subtasksStarts = null;
+        shared = false;
+        ensureAggregates();
+    }
+
+    public void updateStatus() {
+        ensureAggregates();
+        if (included.isEmpty() || newSubtasks == included.size()) {
+            status = TaskStatus.NEW;
+        } else if (doneSubtasks == included.size()) {
+            status = TaskStatus.DONE;
+        } else {
+            status = TaskStatus.IN_PROGRESS;
+        }
+    }
+
+    // Начало - самое раннее, конец - самое позднее время среди подзадач, у которых задано время выполнения;
+    // продолжительность - сумма продолжительностей всех подзадач
+    public void updateTime() {
+        ensureAggregates();
+        startTime = subtasksStarts.isEmpty() ? null : subtasksStarts.firstKey();
+        endTime = subtasksEnds.isEmpty() ? null : subtasksEnds.lastKey();
+        duration = Duration.ofMinutes(subtasksMinutes);
+    }
+
+    private void ownTables() {
+        if (!shared) return;
+        shared = false;
+        IntHashMap<Subtask> ownSubtasks = new IntHashMap<>();
+        if (subtasks != null) {
+            ownSubtasks.putAll(subtasks);
+        }
+        subtasks = ownSubtasks;
+        if (subtasksStarts == null) return;
+        subtasksStarts = new TreeMap<>(subtasksStarts);
+        subtasksEnds = new TreeMap<>(subtasksEnds);
+        IntHashMap<Included> ownIncluded = new IntHashMap<>(included.size());
+        ownIncluded.putAll(included);
+        included = ownIncluded;
+    }
+
+    private void ensureAggregates() {
+        if (subtasksStarts != null) return;
+        if (subtasks == null) {
+            subtasks = new IntHashMap<>();
+        }
+        newSubtasks = 0;
+        doneSubtasks = 0;
+        subtasksMinutes = 0;
+        subtasksStarts = new TreeMap<>();
+        subtasksEnds = new TreeMap<>();
+        included = new IntHashMap<>();
+        subtasks.values().forEach(this::include);
+    }
+
+    private void include(Subtask subtask) {
+        boolean timed = subtask.getStartTime().isPresent() && subtask.getEndTime().isPresent();
+        Included values = new Included(subtask.getStatus(), subtask.getDuration().map(Duration::toMinutes).orElse(0L),
+                timed ? subtask.getStartTime().get() : null, timed ? subtask.getEndTime().get() : null);
+        included.put(subtask.getId(), values);
+        if (values.status() == TaskStatus.NEW) {
+            newSubtasks++;
+        } else if (values.status() == TaskStatus.DONE) {
+            doneSubtasks++;
+        }
+        subtasksMinutes += values.minutes();
+        if (values.startTime() != null) {
+            subtasksStarts.merge(values.startTime(), 1, Integer::sum);
+            subtasksEnds.merge(values.endTime(), 1, Integer::sum);
+        }
+    }
+
+    private void exclude(int subtaskId) {
+        Included values = included.remove(subtaskId);
+        if (values == null) return;
+        if (values.status() == TaskStatus.NEW) {
+            newSubtasks--;
+        } else if (values.status() == TaskStatus.DONE) {
+            doneSubtasks--;
+        }
+        subtasksMinutes -= values.minutes();
+        if (values.startTime() != null) {
+            subtasksStarts.computeIfPresent(values.startTime(), (time, count) -> count > 1 ? count - 1 : null);
+            subtasksEnds.computeIfPresent(values.endTime(), (time, count) -> count > 1 ? count - 1 : null);
+        }
     }
 
     public void setEndTime(String endTime) {
@@ -1,5 +1,8 @@
 package tracker.model;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+
 public class Subtask extends Task {
     private final int epicId;
 
@@ -35,6 +38,12 @@ public class Subtask extends Task {
         this.epicId = epicId;
     }
 
+    public Subtask(String name, String description, int epicId, int id, TaskStatus status, LocalDateTime startTime,
+                   Duration duration) {
+        super(name, description, id, status, startTime, duration);
+        this.epicId = epicId;
+    }
+
     @Override
     public String toString() {
         return "Subtask{"
@@ -7,7 +7,6 @@ import java.util.Objects;
 import java.util.Optional;
 
 public class Task {
-    protected static int identificator;
     protected String name;
     protected String description;
     protected TaskStatus status;
@@ -59,6 +58,16 @@ public class Task {
         duration = Duration.ofMinutes(minutesToComplete);
     }
 
+    public Task(String name, String description, int id, TaskStatus status, LocalDateTime startTime,
+                Duration duration) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.status = status;
+        this.startTime = startTime;
+        this.duration = duration;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -89,14 +98,6 @@ public class Task {
         return TaskType.TASK;
     }
 
-    public static int getNewIdentificator() {
-        return ++identificator;
-    }
-
-    public static void resetIdentificator() {
-        identificator = 0;
-    }
-
     public String getDescription() {
         return description;
     }
@@ -0,0 +1,313 @@
+package tracker.schedule;
+
+import tracker.collections.IntHashMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+public class IntervalIndex {
+    private static final long MINUTES_PER_DAY = 24 * 60;
+    // Страницы создаются только для дней, в которые начинается хотя бы один интервал
+    private final NavigableMap<Long, DayPage> pages;
+    // Страница интервала каждой задачи; сам интервал ищется в ней по ID задачи
+    private final IntHashMap<DayPage> taskPages;
+    private int size;
+    // Число интервалов каждой длины в минутах. По нему после удаления самого длинного интервала
+    // граница просмотра назад сразу уменьшается до наибольшей из оставшихся длин.
+    private final NavigableMap<Long, Integer> lengths;
+    // Наибольшая длина интервала в индексе: интервал, начавшийся раньше заданной минуты
+    // более чем на maxLength, до неё не дотягивается
+    private long maxLength;
+    // true, пока в индексе могут быть пересекающиеся интервалы (только после загрузки из файла)
+    private boolean overlapping;
+    private int removalsSinceCheck;
+
+    public IntervalIndex() {
+        pages = new TreeMap<>();
+        taskPages = new IntHashMap<>();
+        lengths = new TreeMap<>();
+    }
+
+    public record Interval(int taskId, LocalDateTime start, LocalDateTime end) {
+    }
+
+    // Без пересечений концы упорядочены как начала, и достаточно проверить ближайшие интервалы
+    public Optional<Interval> findIntersection(LocalDateTime start, LocalDateTime end, int ignoredTaskId) {
+        long startMinute = toMinute(start);
+        long endMinute = toMinuteCeiling(end);
+        if (startMinute >= endMinute) return Optional.empty();
+        Map.Entry<Long, DayPage> page = pages.floorEntry(Math.floorDiv(endMinute - 1, MINUTES_PER_DAY));
+        int index = page == null ? -1 : page.getValue().lastStartBefore(endMinute);
+        if (!overlapping) {
+            for (int checked = 0; checked < 2 && page != null; checked++) {
+                if (index < 0) {
+                    page = pages.lowerEntry(page.getKey());
+                    if (page == null) break;
+                    index = page.getValue().size - 1;
+                }
+                DayPage dayPage = page.getValue();
+                if (dayPage.ends[index] <= startMinute) break;
+                if (dayPage.taskIds[index] != ignoredTaskId) return Optional.of(dayPage.toInterval(index));
+                index--;
+            }
+            return Optional.empty();
+        }
+        while (page != null) {
+            DayPage dayPage = page.getValue();
+            if (index < 0 || dayPage.maxEnd <= startMinute) {
+                page = pages.lowerEntry(page.getKey());
+                if (page == null || page.getValue().lastStart() + maxLength <= startMinute) break;
+                index = page.getValue().size - 1;
+                continue;
+            }
+            if (dayPage.starts[index] + maxLength <= startMinute) break;
+            if (dayPage.ends[index] > startMinute && dayPage.taskIds[index] != ignoredTaskId) {
+                return Optional.of(dayPage.toInterval(index));
+            }
+            index--;
+        }
+        return Optional.empty();
+    }
+
+    // Страница без промежутка нужной длины пропускается целиком
+    public Optional<LocalDateTime> findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime limit) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Продолжительность должна быть положительной: " + duration);
+        }
+        long length = (duration.getSeconds() + 59) / 60;
+        long limitMinute = toMinute(limit);
+        long candidate = toMinuteCeiling(notBefore);
+        Map.Entry<Long, DayPage> page = pages.floorEntry(Math.floorDiv(candidate, MINUTES_PER_DAY));
+        int next;
+        if (page == null) {
+            page = pages.firstEntry();
+            next = 0;
+        } else {
+            next = page.getValue().lastStartBefore(candidate + 1) + 1;
+        }
+        candidate = coveredUntil(candidate);
+        search:
+        while (page != null && candidate + length <= limitMinute) {
+            DayPage dayPage = page.getValue();
+            if (next == 0 && dayPage.maxGap < length) {
+                if (dayPage.starts[0] - candidate >= length) break;
+                candidate = Math.max(candidate, dayPage.maxEnd);
+            } else {
+                for (; next < dayPage.size; next++) {
+                    if (dayPage.starts[next] - candidate >= length) break search;
+                    candidate = Math.max(candidate, dayPage.ends[next]);
+                }
+            }
+            page = pages.higherEntry(page.getKey());
+            next = 0;
+        }
+        return candidate + length <= limitMinute ? Optional.of(toDateTime(candidate)) : Optional.empty();
+    }
+
+    // Конец занятого времени, начинающегося с minute: наибольший конец интервалов, начавшихся не позже minute,
+    // либо сама minute, если она свободна. Без пересечений это конец последнего такого интервала.
+    private long coveredUntil(long minute) {
+        long until = minute;
+        Map.Entry<Long, DayPage> page = pages.floorEntry(Math.floorDiv(minute, MINUTES_PER_DAY));
+        int index = page == null ? -1 : page.getValue().lastStartBefore(minute + 1);
+        if (!overlapping) {
+            if (page != null && index < 0) {
+                page = pages.lowerEntry(page.getKey());
+                index = page == null ? -1 : page.getValue().size - 1;
+            }
+            return page == null ? until : Math.max(until, page.getValue().ends[index]);
+        }
+        while (page != null) {
+            DayPage dayPage = page.getValue();
+            if (index < 0 || dayPage.maxEnd <= minute) {
+                page = pages.lowerEntry(page.getKey());
+                if (page == null || page.getValue().lastStart() + maxLength <= minute) break;
+                index = page.getValue().size - 1;
+                continue;
+            }
+            if (dayPage.starts[index] + maxLength <= minute) break;
+            until = Math.max(until, dayPage.ends[index]);
+            index--;
+        }
+        return until;
+    }
+
+    public void add(int taskId, LocalDateTime start, LocalDateTime end) {
+        remove(taskId);
+        long startMinute = toMinute(start);
+        long endMinute = toMinuteCeiling(end);
+        if (startMinute >= endMinute) return;
+        if (!overlapping && findIntersection(start, end, taskId).isPresent()) {
+            overlapping = true;
+            removalsSinceCheck = 0;
+        }
+        lengths.merge(endMinute - startMinute, 1, Integer::sum);
+        maxLength = Math.max(maxLength, endMinute - startMinute);
+        DayPage page = pages.computeIfAbsent(Math.floorDiv(startMinute, MINUTES_PER_DAY), day -> new DayPage());
+        page.insert(taskId, startMinute, endMinute);
+        taskPages.put(taskId, page);
+        size++;
+    }
+
+    public void remove(int taskId) {
+        DayPage page = taskPages.remove(taskId);
+        if (page == null) return;
+        int index = page.indexOf(taskId);
+        long startMinute = page.starts[index];
+        long day = Math.floorDiv(startMinute, MINUTES_PER_DAY);
+        long length = page.ends[index] - startMinute;
+        page.delete(index);
+        if (page.size == 0) {
+            pages.remove(day);
+        }
+        if (lengths.merge(length, -1, Integer::sum) == 0) {
+            lengths.remove(length);
+            maxLength = lengths.isEmpty() ? 0 : lengths.lastKey();
+        }
+        size--;
+        if (overlapping && ++removalsSinceCheck >= size) {
+            overlapping = hasOverlaps();
+            removalsSinceCheck = 0;
+        }
+    }
+
+    // Интервалы перебираются по возрастанию начала: пересечение есть, если интервал начинается раньше
+    // наибольшего конца предыдущих
+    private boolean hasOverlaps() {
+        long coveredUntil = Long.MIN_VALUE;
+        for (DayPage page : pages.values()) {
+            for (int i = 0; i < page.size; i++) {
+                if (page.starts[i] < coveredUntil) return true;
+                coveredUntil = Math.max(coveredUntil, page.ends[i]);
+            }
+        }
+        return false;
+    }
+
+    public Optional<Interval> get(int taskId) {
+        DayPage page = taskPages.get(taskId);
+        return page == null ? Optional.empty() : Optional.of(page.toInterval(page.indexOf(taskId)));
+    }
+
+    public void clear() {
+        pages.clear();
+        taskPages.clear();
+        lengths.clear();
+        size = 0;
+        maxLength = 0;
+        overlapping = false;
+        removalsSinceCheck = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Насколько назад от заданной минуты просматриваются интервалы: наибольшая длина интервала в индексе
+    long lookbackMinutes() {
+        return maxLength;
+    }
+
+    // Просматриваются ли интервалы назад на lookbackMinutes(), а не только ближайший
+    boolean isOverlapping() {
+        return overlapping;
+    }
+
+    public List<Interval> getIntervals() {
+        List<Interval> intervals = new ArrayList<>(size);
+        for (DayPage page : pages.values()) {
+            for (int i = 0; i < page.size; i++) {
+                intervals.add(page.toInterval(i));
+            }
+        }
+        return intervals;
+    }
+
+    static long toMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    static long toMinuteCeiling(LocalDateTime dateTime) {
+        long minute = toMinute(dateTime);
+        return toDateTime(minute).isBefore(dateTime) ? minute + 1 : minute;
+    }
+
+    static LocalDateTime toDateTime(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    // maxGap - наибольший свободный промежуток между интервалами страницы
+    private static class DayPage {
+        private long[] starts = new long[4];
+        private long[] ends = new long[4];
+        private int[] taskIds = new int[4];
+        private int size;
+        private long maxEnd = Long.MIN_VALUE;
+        private long maxGap;
+
+        private long lastStart() {
+            return starts[size - 1];
+        }
+
+        private int lastStartBefore(long minute) {
+            int index = Arrays.binarySearch(starts, 0, size, minute);
+            return (index >= 0 ? index : -index - 1) - 1;
+        }
+
+        // Перебор страницы стоит столько же, сколько сдвиг её массивов при удалении
+        private int indexOf(int taskId) {
+            int index = 0;
+            while (taskIds[index] != taskId) {
+                index++;
+            }
+            return index;
+        }
+
+        private void insert(int taskId, long start, long end) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+                taskIds = Arrays.copyOf(taskIds, size * 2);
+            }
+            int index = lastStartBefore(start) + 1;
+            System.arraycopy(starts, index, starts, index + 1, size - index);
+            System.arraycopy(ends, index, ends, index + 1, size - index);
+            System.arraycopy(taskIds, index, taskIds, index + 1, size - index);
+            starts[index] = start;
+            ends[index] = end;
+            taskIds[index] = taskId;
+            size++;
+            refresh();
+        }
+
+        private void delete(int index) {
+            System.arraycopy(starts, index + 1, starts, index, size - index - 1);
+            System.arraycopy(ends, index + 1, ends, index, size - index - 1);
+            System.arraycopy(taskIds, index + 1, taskIds, index, size - index - 1);
+            size--;
+            refresh();
+        }
+
+        // Вставка и удаление и так сдвигают массивы страницы, поэтому её сводки пересчитываются целиком
+        private void refresh() {
+            maxEnd = Long.MIN_VALUE;
+            maxGap = 0;
+            for (int i = 0; i < size; i++) {
+                if (i > 0) {
+                    maxGap = Math.max(maxGap, starts[i] - maxEnd);
+                }
+                maxEnd = Math.max(maxEnd, ends[i]);
+            }
+        }
+
+        private Interval toInterval(int index) {
+            return new Interval(taskIds[index], toDateTime(starts[index]), toDateTime(ends[index]));
+        }
+    }
+}
@@ -2,6 +2,7 @@ package tracker.server;
 
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpServer;
+import tracker.controllers.FileBackedTaskManager;
 import tracker.controllers.Managers;
 import tracker.controllers.TaskManager;
 import tracker.server.handlers.*;
@@ -42,6 +43,7 @@ public class HttpTaskServer {
         httpServer.createContext("/subtasks", new SubtasksHandler(taskManager));
         httpServer.createContext("/history", new HistoryHandler(taskManager));
         httpServer.createContext("/prioritized", new PrioritizedHandler(taskManager));
+        httpServer.createContext("/slots", new SlotsHandler(taskManager));
         httpServer.start(); // запускаем сервер
 
         //System.out.println("HTTP-сервер запущен на " + PORT + " порту!");
@@ -49,6 +51,9 @@ public class HttpTaskServer {
 
     public void stop() {
         httpServer.stop(0); // останавливаем сервер
+        if (taskManager instanceof FileBackedTaskManager fileBackedTaskManager) {
+            fileBackedTaskManager.flush();
+        }
 
         //System.out.println("HTTP-сервер остановлен на " + PORT + " порту!");
     }
@@ -9,9 +9,12 @@ import tracker.server.adapters.DurationAdapter;
 import tracker.server.adapters.LocalDateTimeAdapter;
 
 import java.io.IOException;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
 
 public abstract class BaseHttpHandler implements HttpHandler {
     public static final Gson GSON = new GsonBuilder()
@@ -88,6 +91,24 @@ public abstract class BaseHttpHandler implements HttpHandler {
         return Endpoint.UNKNOWN;
     }
 
+    protected Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null) return parameters;
+        for (String parameter : query.split("&")) {
+            String[] pair = parameter.split("=", 2);
+            if (pair.length == 2) {
+                parameters.put(pair[0], URLDecoder.decode(pair[1], StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    // POST с параметром autoPlace=true: задаче без времени начала назначается ближайшее свободное время
+    protected boolean isAutoPlaceRequested(HttpExchange exchange) {
+        Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+        return Boolean.parseBoolean(parameters.get("autoPlace"));
+    }
+
     abstract void handleGetTasks(HttpExchange exchange) throws IOException;
 
     abstract void handleGetTask(HttpExchange exchange) throws IOException;
@@ -5,17 +5,47 @@ import tracker.controllers.TaskManager;
 import tracker.model.Task;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 
 public class PrioritizedHandler extends BaseHttpHandler {
     public PrioritizedHandler(TaskManager taskManager) {
         super(taskManager);
     }
 
+    // GET /prioritized?from=dd.MM.yyyy HH:mm&to=dd.MM.yyyy HH:mm&limit=N - все параметры необязательны
     @Override
     void handleGetTasks(HttpExchange exchange) throws IOException {
-        List<Task> prioritizedTasks = taskManager.getPrioritizedTasks();
-        sendText(exchange, GSON.toJson(prioritizedTasks));
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            sendText(exchange, GSON.toJson(taskManager.getPrioritizedTasks()));
+            return;
+        }
+        try {
+            Map<String, String> parameters = parseQuery(query);
+            LocalDateTime from = parameters.containsKey("from")
+                    ? LocalDateTime.parse(parameters.get("from"), Task.DATE_FORMATTER) : null;
+            LocalDateTime to = parameters.containsKey("to")
+                    ? LocalDateTime.parse(parameters.get("to"), Task.DATE_FORMATTER) : null;
+            int limit = parameters.containsKey("limit") ? Integer.parseInt(parameters.get("limit")) : 0;
+            if (limit < 0) {
+                sendClientError(exchange, "Параметр limit не может быть отрицательным.");
+                return;
+            }
+            if ((from != null) && (to != null) && to.isBefore(from)) {
+                sendClientError(exchange, "Параметр to не может быть раньше параметра from.");
+                return;
+            }
+            List<Task> prioritizedTasks = taskManager.getPrioritizedTasks(from, to, limit);
+            sendText(exchange, GSON.toJson(prioritizedTasks));
+        } catch (DateTimeParseException e) {
+            sendClientError(exchange, "Некорректный формат даты, ожидается '"
+                    + LocalDateTime.now().format(Task.DATE_FORMATTER) + "'.");
+        } catch (NumberFormatException e) {
+            sendClientError(exchange, "Некорректное значение параметра limit.");
+        }
     }
 
     @Override
@@ -0,0 +1,70 @@
+package tracker.server.handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+import tracker.controllers.TaskManager;
+import tracker.model.Task;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+public class SlotsHandler extends BaseHttpHandler {
+    public SlotsHandler(TaskManager taskManager) {
+        super(taskManager);
+    }
+
+    // GET /slots?duration=N&notBefore=dd.MM.yyyy HH:mm - ближайшее свободное время для задачи длиной N минут
+    @Override
+    void handleGetTasks(HttpExchange exchange) throws IOException {
+        try {
+            Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+            if (!parameters.containsKey("duration")) {
+                sendClientError(exchange, "Не указана продолжительность задачи.");
+                return;
+            }
+            long minutes = Long.parseLong(parameters.get("duration"));
+            if (minutes <= 0) {
+                sendClientError(exchange, "Продолжительность задачи должна быть положительной.");
+                return;
+            }
+            LocalDateTime notBefore = parameters.containsKey("notBefore")
+                    ? LocalDateTime.parse(parameters.get("notBefore"), Task.DATE_FORMATTER) : null;
+            Optional<LocalDateTime> startTime = taskManager.findFreeSlot(Duration.ofMinutes(minutes), notBefore);
+            if (startTime.isEmpty()) {
+                sendNotFound(exchange, "Нет свободного времени в пределах горизонта планирования.");
+                return;
+            }
+            Map<String, String> slot = new LinkedHashMap<>();
+            slot.put("startTime", startTime.get().format(Task.DATE_FORMATTER));
+            slot.put("endTime", startTime.get().plusMinutes(minutes).format(Task.DATE_FORMATTER));
+            sendText(exchange, GSON.toJson(slot));
+        } catch (NumberFormatException e) {
+            sendClientError(exchange, "Некорректная продолжительность задачи.");
+        } catch (DateTimeParseException e) {
+            sendClientError(exchange, "Некорректный формат даты, ожидается '"
+                    + LocalDateTime.now().format(Task.DATE_FORMATTER) + "'.");
+        } catch (ArithmeticException | DateTimeException e) {
+            sendClientError(exchange, "Продолжительность задачи выходит за пределы допустимого времени.");
+        }
+    }
+
+    @Override
+    void handleGetTask(HttpExchange exchange) throws IOException {
+        sendMethodNotAllowed(exchange);
+    }
+
+    @Override
+    void handlePostTask(HttpExchange exchange) throws IOException {
+        sendMethodNotAllowed(exchange);
+    }
+
+    @Override
+    void handleDeleteTask(HttpExchange exchange) throws IOException {
+        sendMethodNotAllowed(exchange);
+    }
+}
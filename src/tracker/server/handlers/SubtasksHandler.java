@@ -57,7 +57,11 @@ public class SubtasksHandler extends BaseHttpHandler {
             if (subtask.getId() > 0) {
                 taskManager.updateSubtask(subtask.getId(), subtask);
             } else {
-                taskManager.addSubtask(subtask);
+                if (isAutoPlaceRequested(exchange)) {
+                    taskManager.addSubtaskInFreeSlot(subtask);
+                } else {
+                    taskManager.addSubtask(subtask);
+                }
             }
             sendCreated(exchange);
         } catch (JsonSyntaxException e) {
@@ -57,7 +57,11 @@ public class TasksHandler extends BaseHttpHandler {
             if (task.getId() > 0) {
                 taskManager.updateTask(task.getId(), task);
             } else {
-                taskManager.addTask(task);
+                if (isAutoPlaceRequested(exchange)) {
+                    taskManager.addTaskInFreeSlot(task);
+                } else {
+                    taskManager.addTask(task);
+                }
             }
             sendCreated(exchange);
         } catch (JsonSyntaxException e) {
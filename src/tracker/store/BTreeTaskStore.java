@@ -0,0 +1,500 @@
+package tracker.store;
+
+import tracker.exceptions.ManagerSaveException;
+import tracker.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+
+// B+дерево в файле; в памяти не больше cachePages страниц. Без журнала: сбой между flush() портит файл.
+public class BTreeTaskStore implements TaskStore {
+    public static final int DEFAULT_CACHE_PAGES = 1024;
+    static final int PAGE_SIZE = 4096;
+    private static final int MIN_CACHE_PAGES = 16;
+    private static final int MAGIC = 0x4B414E54;
+    private static final short VERSION = 1;
+    private static final byte LEAF = 1;
+    private static final byte INTERNAL = 2;
+    private static final int NODE_HEADER_BYTES = 7;
+    private static final int ENTRY_HEADER_BYTES = 6;
+    private static final int OVERFLOW_REFERENCE_BYTES = 8;
+    private static final int OVERFLOW_HEADER_BYTES = 8;
+    private static final int MAX_INLINE_BYTES = PAGE_SIZE / 4;
+    private static final int MAX_INTERNAL_KEYS = (PAGE_SIZE - NODE_HEADER_BYTES) / 8;
+    // Страница 0 занята заголовком, поэтому 0 означает отсутствие ссылки
+    private static final int NO_PAGE = 0;
+    private final File file;
+    private final FileChannel channel;
+    private final int cachePages;
+    private final LinkedHashMap<Integer, Node> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private int root;
+    private int pageCount;
+    private int size;
+    private int freePage;
+    private boolean metaDirty;
+
+    public BTreeTaskStore(File file) throws ManagerSaveException {
+        this(file, DEFAULT_CACHE_PAGES);
+    }
+
+    public BTreeTaskStore(File file, int cachePages) throws ManagerSaveException {
+        this.file = file;
+        this.cachePages = Math.max(MIN_CACHE_PAGES, cachePages);
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            if (channel.size() == 0) {
+                pageCount = 1;
+                Leaf leaf = new Leaf(allocate());
+                markDirty(leaf);
+                root = leaf.page;
+                writeDirty();
+            } else {
+                readMeta();
+            }
+        } catch (IOException e) {
+            throw failure(e);
+        }
+    }
+
+    @Override
+    public synchronized Task get(int id) throws ManagerSaveException {
+        try {
+            Leaf leaf = findLeaf(id, null);
+            int index = Collections.binarySearch(leaf.keys, id);
+            Task task = index < 0 ? null : TaskCodec.read(ByteBuffer.wrap(valueOf(leaf.values.get(index))));
+            evict();
+            return task;
+        } catch (IOException e) {
+            throw failure(e);
+        }
+    }
+
+    @Override
+    public synchronized void put(Task task) throws ManagerSaveException {
+        try {
+            Deque<Internal> path = new ArrayDeque<>();
+            Leaf leaf = findLeaf(task.getId(), path);
+            int index = Collections.binarySearch(leaf.keys, task.getId());
+            if (index >= 0) {
+                freeOverflow(leaf.values.get(index));
+            }
+            byte[] record = TaskCodec.encode(task);
+            Object value = record.length > MAX_INLINE_BYTES ? writeOverflow(record) : record;
+            if (index >= 0) {
+                leaf.values.set(index, value);
+            } else {
+                leaf.keys.add(-index - 1, task.getId());
+                leaf.values.add(-index - 1, value);
+                size++;
+                metaDirty = true;
+            }
+            markDirty(leaf);
+            if (leaf.bytes() > PAGE_SIZE) {
+                boolean appended = index < 0 && -index - 1 == leaf.keys.size() - 1 && leaf.next == NO_PAGE;
+                splitLeaf(leaf, path, appended);
+            }
+            evict();
+        } catch (IOException e) {
+            throw failure(e);
+        }
+    }
+
+    @Override
+    public synchronized void remove(int id) throws ManagerSaveException {
+        try {
+            Leaf leaf = findLeaf(id, null);
+            int index = Collections.binarySearch(leaf.keys, id);
+            if (index >= 0) {
+                leaf.keys.remove(index);
+                freeOverflow(leaf.values.remove(index));
+                size--;
+                metaDirty = true;
+                markDirty(leaf);
+            }
+            evict();
+        } catch (IOException e) {
+            throw failure(e);
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized void forEach(Consumer<Task> action) throws ManagerSaveException {
+        try {
+            Node node = readNode(root);
+            while (node instanceof Internal internal) {
+                node = readNode(internal.children.getFirst());
+            }
+            for (Leaf leaf = (Leaf) node; ; leaf = (Leaf) readNode(leaf.next)) {
+                for (Object value : leaf.values) {
+                    action.accept(TaskCodec.read(ByteBuffer.wrap(valueOf(value))));
+                }
+                evict();
+                if (leaf.next == NO_PAGE) break;
+            }
+        } catch (IOException e) {
+            throw failure(e);
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws ManagerSaveException {
+        try {
+            writeDirty();
+        } catch (IOException e) {
+            throw failure(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws ManagerSaveException {
+        flush();
+        try {
+            channel.force(true);
+            channel.close();
+        } catch (IOException e) {
+            throw failure(e);
+        }
+    }
+
+    // Число страниц в кэше; для проверки того, что память ограничена
+    synchronized int getCachedPages() {
+        return cache.size();
+    }
+
+    /// Узлы
+    private abstract static class Node {
+        final int page;
+        boolean dirty;
+
+        Node(int page) {
+            this.page = page;
+        }
+    }
+
+    // Значение записи - массив байт или ссылка Overflow на цепочку страниц продолжения
+    private static final class Leaf extends Node {
+        final List<Integer> keys = new ArrayList<>();
+        final List<Object> values = new ArrayList<>();
+        int next = NO_PAGE;
+
+        Leaf(int page) {
+            super(page);
+        }
+
+        int bytes() {
+            int bytes = NODE_HEADER_BYTES;
+            for (Object value : values) {
+                bytes += entryBytes(value);
+            }
+            return bytes;
+        }
+    }
+
+    // keys[i] - наименьший ID в поддереве children[i + 1]
+    private static final class Internal extends Node {
+        final List<Integer> keys = new ArrayList<>();
+        final List<Integer> children = new ArrayList<>();
+
+        Internal(int page) {
+            super(page);
+        }
+
+        int childIndex(int id) {
+            int index = Collections.binarySearch(keys, id);
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+    }
+
+    private record Overflow(int page, int length) {
+    }
+
+    private static int entryBytes(Object value) {
+        return ENTRY_HEADER_BYTES + (value instanceof byte[] bytes ? bytes.length : OVERFLOW_REFERENCE_BYTES);
+    }
+    /// ---------------------------------
+
+    private Leaf findLeaf(int id, Deque<Internal> path) throws IOException {
+        Node node = readNode(root);
+        while (node instanceof Internal internal) {
+            if (path != null) {
+                path.push(internal);
+            }
+            node = readNode(internal.children.get(internal.childIndex(id)));
+        }
+        return (Leaf) node;
+    }
+
+    // При добавлении в конец последнего листа в новый лист переносится только новая запись
+    private void splitLeaf(Leaf leaf, Deque<Internal> path, boolean appended) throws IOException {
+        int split = leaf.values.size() - 1;
+        if (!appended) {
+            int half = leaf.bytes() / 2;
+            int bytes = NODE_HEADER_BYTES;
+            split = 0;
+            while (split < leaf.values.size() - 1 && bytes + entryBytes(leaf.values.get(split)) <= half) {
+                bytes += entryBytes(leaf.values.get(split++));
+            }
+            split = Math.max(1, split);
+        }
+        Leaf right = new Leaf(allocate());
+        List<Integer> movedKeys = leaf.keys.subList(split, leaf.keys.size());
+        List<Object> movedValues = leaf.values.subList(split, leaf.values.size());
+        right.keys.addAll(movedKeys);
+        right.values.addAll(movedValues);
+        movedKeys.clear();
+        movedValues.clear();
+        right.next = leaf.next;
+        leaf.next = right.page;
+        markDirty(leaf);
+        markDirty(right);
+        insertIntoParent(path, leaf, right.keys.getFirst(), right.page);
+    }
+
+    private void insertIntoParent(Deque<Internal> path, Node left, int key, int rightPage) throws IOException {
+        if (path.isEmpty()) {
+            Internal newRoot = new Internal(allocate());
+            newRoot.children.add(left.page);
+            newRoot.keys.add(key);
+            newRoot.children.add(rightPage);
+            markDirty(newRoot);
+            root = newRoot.page;
+            metaDirty = true;
+            return;
+        }
+        Internal parent = path.pop();
+        int index = parent.children.indexOf(left.page);
+        parent.keys.add(index, key);
+        parent.children.add(index + 1, rightPage);
+        markDirty(parent);
+        if (parent.keys.size() > MAX_INTERNAL_KEYS) {
+            int middle = parent.keys.size() / 2;
+            Internal right = new Internal(allocate());
+            int promoted = parent.keys.get(middle);
+            List<Integer> movedKeys = parent.keys.subList(middle, parent.keys.size());
+            List<Integer> movedChildren = parent.children.subList(middle + 1, parent.children.size());
+            right.keys.addAll(movedKeys.subList(1, movedKeys.size()));
+            right.children.addAll(movedChildren);
+            movedKeys.clear();
+            movedChildren.clear();
+            markDirty(right);
+            insertIntoParent(path, parent, promoted, right.page);
+        }
+    }
+
+    /// Страницы
+    private int allocate() throws IOException {
+        metaDirty = true;
+        if (freePage == NO_PAGE) {
+            return pageCount++;
+        }
+        int page = freePage;
+        freePage = readInt(page);
+        return page;
+    }
+
+    private Overflow writeOverflow(byte[] record) throws IOException {
+        int chunkBytes = PAGE_SIZE - OVERFLOW_HEADER_BYTES;
+        int chunks = (record.length + chunkBytes - 1) / chunkBytes;
+        int[] pages = new int[chunks];
+        for (int i = 0; i < chunks; i++) {
+            pages[i] = allocate();
+        }
+        for (int i = 0; i < chunks; i++) {
+            int from = i * chunkBytes;
+            int length = Math.min(chunkBytes, record.length - from);
+            ByteBuffer page = ByteBuffer.allocate(OVERFLOW_HEADER_BYTES + length)
+                    .putInt(i + 1 < chunks ? pages[i + 1] : NO_PAGE)
+                    .putInt(length)
+                    .put(record, from, length);
+            write(page.flip(), pages[i]);
+        }
+        return new Overflow(pages[0], record.length);
+    }
+
+    private byte[] valueOf(Object value) throws IOException {
+        if (value instanceof byte[] bytes) return bytes;
+        Overflow overflow = (Overflow) value;
+        ByteBuffer record = ByteBuffer.allocate(overflow.length());
+        ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+        for (int next = overflow.page(); next != NO_PAGE; ) {
+            read(page.clear(), next);
+            next = page.getInt();
+            int length = page.getInt();
+            record.put(page.limit(page.position() + length));
+        }
+        return record.array();
+    }
+
+    // Страницы продолжения попадают в список свободных: первое число свободной страницы - следующая свободная
+    private void freeOverflow(Object value) throws IOException {
+        if (!(value instanceof Overflow overflow)) return;
+        for (int page = overflow.page(); page != NO_PAGE; ) {
+            int next = readInt(page);
+            write(ByteBuffer.allocate(Integer.BYTES).putInt(0, freePage), page);
+            freePage = page;
+            page = next;
+        }
+        metaDirty = true;
+    }
+
+    private Node readNode(int page) throws IOException {
+        Node node = cache.get(page);
+        if (node != null) return node;
+        ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+        read(buffer, page);
+        byte type = buffer.get();
+        int count = buffer.getShort() & 0xFFFF;
+        if (type == LEAF) {
+            Leaf leaf = new Leaf(page);
+            leaf.next = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                leaf.keys.add(buffer.getInt());
+                int length = buffer.getShort();
+                if (length < 0) {
+                    leaf.values.add(new Overflow(buffer.getInt(), buffer.getInt()));
+                } else {
+                    byte[] value = new byte[length];
+                    buffer.get(value);
+                    leaf.values.add(value);
+                }
+            }
+            node = leaf;
+        } else if (type == INTERNAL) {
+            Internal internal = new Internal(page);
+            internal.children.add(buffer.getInt());
+            for (int i = 0; i < count; i++) {
+                internal.keys.add(buffer.getInt());
+                internal.children.add(buffer.getInt());
+            }
+            node = internal;
+        } else {
+            throw new IOException("Страница " + page + " не является узлом дерева.");
+        }
+        cache(node);
+        return node;
+    }
+
+    private void writeNode(Node node) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+        if (node instanceof Leaf leaf) {
+            buffer.put(LEAF).putShort((short) leaf.keys.size()).putInt(leaf.next);
+            for (int i = 0; i < leaf.keys.size(); i++) {
+                buffer.putInt(leaf.keys.get(i));
+                if (leaf.values.get(i) instanceof byte[] value) {
+                    buffer.putShort((short) value.length).put(value);
+                } else {
+                    Overflow overflow = (Overflow) leaf.values.get(i);
+                    buffer.putShort((short) -1).putInt(overflow.page()).putInt(overflow.length());
+                }
+            }
+        } else {
+            Internal internal = (Internal) node;
+            buffer.put(INTERNAL).putShort((short) internal.keys.size()).putInt(internal.children.getFirst());
+            for (int i = 0; i < internal.keys.size(); i++) {
+                buffer.putInt(internal.keys.get(i)).putInt(internal.children.get(i + 1));
+            }
+        }
+        write(buffer.flip(), node.page);
+        node.dirty = false;
+    }
+
+    private void writeDirty() throws IOException {
+        for (Node node : cache.values()) {
+            if (node.dirty) {
+                writeNode(node);
+            }
+        }
+        if (metaDirty) {
+            writeMeta();
+        }
+    }
+
+    private void markDirty(Node node) {
+        node.dirty = true;
+        cache(node);
+    }
+
+    private void cache(Node node) {
+        cache.put(node.page, node);
+    }
+
+    // Вытеснение выполняется только между операциями, чтобы не записать узел, который ещё изменяется
+    private void evict() throws IOException {
+        Iterator<Node> eldest = cache.values().iterator();
+        while (cache.size() > cachePages) {
+            Node node = eldest.next();
+            if (node.dirty) {
+                writeNode(node);
+            }
+            eldest.remove();
+        }
+    }
+
+    private void readMeta() throws IOException {
+        ByteBuffer meta = ByteBuffer.allocate(PAGE_SIZE);
+        read(meta, 0);
+        if (meta.getInt() != MAGIC) {
+            throw new IOException("Файл не является хранилищем задач.");
+        }
+        short version = meta.getShort();
+        if (version != VERSION || meta.getInt() != PAGE_SIZE) {
+            throw new IOException("Неподдерживаемая версия хранилища задач: " + version);
+        }
+        root = meta.getInt();
+        pageCount = meta.getInt();
+        size = meta.getInt();
+        freePage = meta.getInt();
+    }
+
+    private void writeMeta() throws IOException {
+        ByteBuffer meta = ByteBuffer.allocate(26)
+                .putInt(MAGIC)
+                .putShort(VERSION)
+                .putInt(PAGE_SIZE)
+                .putInt(root)
+                .putInt(pageCount)
+                .putInt(size)
+                .putInt(freePage);
+        write(meta.flip(), 0);
+        metaDirty = false;
+    }
+
+    private int readInt(int page) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+        read(buffer, page);
+        return buffer.getInt();
+    }
+
+    private void read(ByteBuffer buffer, int page) throws IOException {
+        long position = (long) page * PAGE_SIZE;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) break;
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    private void write(ByteBuffer buffer, int page) throws IOException {
+        long position = (long) page * PAGE_SIZE;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private ManagerSaveException failure(IOException e) {
+        return new ManagerSaveException("Возникла ошибка при работе с хранилищем задач '" + file.getAbsolutePath()
+                + "': " + e.getMessage());
+    }
+}
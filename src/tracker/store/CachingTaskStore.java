@@ -0,0 +1,104 @@
+package tracker.store;
+
+import tracker.exceptions.ManagerSaveException;
+import tracker.model.Task;
+import tracker.model.TaskType;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Перебор идёт мимо кэша: полный список вытеснил бы из него последние прочитанные записи
+public class CachingTaskStore implements TaskStore {
+    public static final int DEFAULT_CAPACITY = 10_000;
+    private final TaskStore store;
+    private final int capacity;
+    private final LinkedHashMap<Integer, byte[]> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    public CachingTaskStore(TaskStore store) {
+        this(store, DEFAULT_CAPACITY);
+    }
+
+    public CachingTaskStore(TaskStore store, int capacity) {
+        this.store = store;
+        this.capacity = Math.max(1, capacity);
+    }
+
+    @Override
+    public Task get(int id) throws ManagerSaveException {
+        byte[] record = cache.get(id);
+        if (record != null) {
+            return TaskCodec.read(ByteBuffer.wrap(record));
+        }
+        Task task = store.get(id);
+        if (task != null) {
+            cache(task);
+        }
+        return task;
+    }
+
+    @Override
+    public void put(Task task) throws ManagerSaveException {
+        store.put(task);
+        cache(task);
+    }
+
+    @Override
+    public void remove(int id) throws ManagerSaveException {
+        store.remove(id);
+        cache.remove(id);
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public void forEach(Consumer<Task> action) throws ManagerSaveException {
+        store.forEach(action);
+    }
+
+    @Override
+    public List<? extends Task> list(TaskType type) throws ManagerSaveException {
+        return store.list(type);
+    }
+
+    @Override
+    public Map<Integer, ? extends Task> map(TaskType type) throws ManagerSaveException {
+        return store.map(type);
+    }
+
+    @Override
+    public Map<Integer, Task> map() throws ManagerSaveException {
+        return store.map();
+    }
+
+    @Override
+    public void flush() throws ManagerSaveException {
+        store.flush();
+    }
+
+    @Override
+    public void close() throws ManagerSaveException {
+        cache.clear();
+        store.close();
+    }
+
+    // Число записей в кэше; для проверки того, что память ограничена
+    public int getCachedTasks() {
+        return cache.size();
+    }
+
+    private void cache(Task task) {
+        cache.put(task.getId(), TaskCodec.encode(task));
+        Iterator<byte[]> eldest = cache.values().iterator();
+        while (cache.size() > capacity) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package tracker.store;
+
+import tracker.collections.IntHashMap;
+import tracker.model.Epic;
+import tracker.model.Subtask;
+import tracker.model.Task;
+import tracker.model.TaskType;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+// Держит сами переданные объекты; не потокобезопасно - доступ упорядочивает менеджер
+public class InMemoryTaskStore implements TaskStore {
+    private final IntHashMap<Task> tasks = new IntHashMap<>();
+    private final IntHashMap<Epic> epics = new IntHashMap<>();
+    private final IntHashMap<Subtask> subtasks = new IntHashMap<>();
+    private final Map<Integer, Task> records = new RecordsView();
+
+    @Override
+    public Task get(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = subtasks.get(id);
+        }
+        return task != null ? task : epics.get(id);
+    }
+
+    @Override
+    public void put(Task task) {
+        Task previous = get(task.getId());
+        if (previous != null && previous.getType() != task.getType()) {
+            tableOf(previous.getType()).remove(task.getId());
+        }
+        switch (task.getType()) {
+            case TASK -> tasks.put(task.getId(), task);
+            case EPIC -> epics.put(task.getId(), (Epic) task);
+            case SUBTASK -> subtasks.put(task.getId(), (Subtask) task);
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        if (tasks.remove(id) == null && subtasks.remove(id) == null) {
+            epics.remove(id);
+        }
+    }
+
+    @Override
+    public int size() {
+        return tasks.size() + epics.size() + subtasks.size();
+    }
+
+    @Override
+    public void forEach(Consumer<Task> action) {
+        ascending().forEachRemaining(action);
+    }
+
+    @Override
+    public boolean keepsObjects() {
+        return true;
+    }
+
+    @Override
+    public List<? extends Task> list(TaskType type) {
+        return tableOf(type).snapshot();
+    }
+
+    @Override
+    public Map<Integer, ? extends Task> map(TaskType type) {
+        return tableOf(type).snapshotMap();
+    }
+
+    @Override
+    public Map<Integer, Task> map() {
+        return records;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private IntHashMap<? extends Task> tableOf(TaskType type) {
+        return switch (type) {
+            case TASK -> tasks;
+            case EPIC -> epics;
+            case SUBTASK -> subtasks;
+        };
+    }
+
+    // На каждом шаге отдаёт запись с меньшим ID из голов трёх снимков
+    private Iterator<Task> ascending() {
+        List<Task> taskList = tasks.snapshot();
+        List<Epic> epicList = epics.snapshot();
+        List<Subtask> subtaskList = subtasks.snapshot();
+        return new Iterator<>() {
+            private int taskIndex;
+            private int epicIndex;
+            private int subtaskIndex;
+
+            @Override
+            public boolean hasNext() {
+                return taskIndex < taskList.size() || epicIndex < epicList.size()
+                        || subtaskIndex < subtaskList.size();
+            }
+
+            @Override
+            public Task next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                long taskId = idAt(taskList, taskIndex);
+                long epicId = idAt(epicList, epicIndex);
+                long subtaskId = idAt(subtaskList, subtaskIndex);
+                if (taskId < epicId && taskId < subtaskId) return taskList.get(taskIndex++);
+                if (epicId < subtaskId) return epicList.get(epicIndex++);
+                return subtaskList.get(subtaskIndex++);
+            }
+        };
+    }
+
+    private static long idAt(List<? extends Task> list, int index) {
+        return index < list.size() ? list.get(index).getId() : Long.MAX_VALUE;
+    }
+
+    // Неизменяемое представление всех записей: поиск идёт по таблицам, перебор - по возрастанию ID
+    private class RecordsView extends AbstractMap<Integer, Task> {
+        @Override
+        public Task get(Object key) {
+            return key instanceof Integer id ? InMemoryTaskStore.this.get(id) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return InMemoryTaskStore.this.size();
+        }
+
+        @Override
+        public Collection<Task> values() {
+            return new AbstractCollection<>() {
+                @Override
+                public Iterator<Task> iterator() {
+                    return ascending();
+                }
+
+                @Override
+                public int size() {
+                    return InMemoryTaskStore.this.size();
+                }
+            };
+        }
+
+        @Override
+        public Set<Entry<Integer, Task>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Integer, Task>> iterator() {
+                    Iterator<Task> ordered = ascending();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return ordered.hasNext();
+                        }
+
+                        @Override
+                        public Entry<Integer, Task> next() {
+                            Task task = ordered.next();
+                            return new SimpleImmutableEntry<>(task.getId(), task);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return InMemoryTaskStore.this.size();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package tracker.store;
+
+import tracker.exceptions.ManagerSaveException;
+import tracker.model.*;
+
+import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Consumer;
+
+// Время эпиков хранится рассчитанным по подзадачам, чтобы выборки по времени шли по индексу
+public class JdbcTaskStore implements TaskStore {
+    private static final int BATCH_SIZE = 10_000;
+    private static final String COLUMNS = "type, name, description, status, epic_id, start_second, end_second, "
+            + "duration_minutes, id";
+    private static final String SELECT = "SELECT " + COLUMNS + " FROM tasks";
+    private final String url;
+    private final Connection connection;
+    // Изменения до flush(): null означает удаление
+    private final Map<Integer, Row> pending = new LinkedHashMap<>();
+
+    public JdbcTaskStore(String url) throws ManagerSaveException {
+        this.url = url;
+        try {
+            connection = DriverManager.getConnection(url);
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS tasks (id INTEGER PRIMARY KEY, "
+                        + "type VARCHAR(16) NOT NULL, name VARCHAR(1000000), description VARCHAR(1000000), "
+                        + "status VARCHAR(16) NOT NULL, epic_id INTEGER, start_second BIGINT, end_second BIGINT, "
+                        + "duration_minutes BIGINT)");
+                statement.execute("CREATE INDEX IF NOT EXISTS tasks_start ON tasks (start_second)");
+                statement.execute("CREATE INDEX IF NOT EXISTS tasks_epic ON tasks (epic_id)");
+                // Индекс по статусу из прежних версий ни одним запросом не используется
+                statement.execute("DROP INDEX IF EXISTS tasks_status");
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw failure(e);
+        }
+    }
+
+    @Override
+    public synchronized Task get(int id) throws ManagerSaveException {
+        if (pending.containsKey(id)) {
+            Row row = pending.get(id);
+            return row == null ? null : row.toTask();
+        }
+        List<Task> found = query(SELECT + " WHERE id = ?", statement -> statement.setInt(1, id));
+        return found.isEmpty() ? null : found.getFirst();
+    }
+
+    @Override
+    public synchronized void put(Task task) {
+        pending.put(task.getId(), Row.of(task));
+    }
+
+    @Override
+    public synchronized void remove(int id) {
+        pending.put(id, null);
+    }
+
+    @Override
+    public synchronized int size() throws ManagerSaveException {
+        flush();
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT COUNT(*) FROM tasks")) {
+            result.next();
+            return result.getInt(1);
+        } catch (SQLException e) {
+            throw failure(e);
+        }
+    }
+
+    @Override
+    public synchronized void forEach(Consumer<Task> action) throws ManagerSaveException {
+        flush();
+        try (PreparedStatement statement = connection.prepareStatement(SELECT + " ORDER BY id")) {
+            statement.setFetchSize(BATCH_SIZE);
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    action.accept(read(result));
+                }
+            }
+        } catch (SQLException e) {
+            throw failure(e);
+        }
+    }
+
+    // Задачи, подзадачи и эпики, начинающиеся в полуинтервале [from, to), в порядке начала; null снимает границу,
+    // limit <= 0 - без ограничения. Эпики возвращаются без подзадач: их собирает менеджер
+    public synchronized List<Task> findByStartTime(LocalDateTime from, LocalDateTime to, int limit)
+            throws ManagerSaveException {
+        flush();
+        return query(SELECT + " WHERE start_second >= ? AND start_second < ? "
+                + "ORDER BY start_second, id" + (limit > 0 ? " LIMIT " + limit : ""), statement -> {
+            statement.setLong(1, from != null ? secondAtOrAfter(from) : Long.MIN_VALUE);
+            statement.setLong(2, to != null ? secondAtOrAfter(to) : Long.MAX_VALUE);
+        });
+    }
+
+    public synchronized List<Task> findByEpic(int epicId) throws ManagerSaveException {
+        flush();
+        return query(SELECT + " WHERE epic_id = ? ORDER BY id", statement -> statement.setInt(1, epicId));
+    }
+
+    // Сначала изменённые записи обновляются, затем вставляются те, которых в таблице ещё не было
+    @Override
+    public synchronized void flush() throws ManagerSaveException {
+        if (pending.isEmpty()) return;
+        try (PreparedStatement update = connection.prepareStatement("UPDATE tasks SET type = ?, name = ?, "
+                + "description = ?, status = ?, epic_id = ?, start_second = ?, end_second = ?, "
+                + "duration_minutes = ? WHERE id = ?");
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO tasks (" + COLUMNS + ") "
+                     + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement delete = connection.prepareStatement("DELETE FROM tasks WHERE id = ?")) {
+            List<Row> batch = new ArrayList<>(BATCH_SIZE);
+            for (Map.Entry<Integer, Row> change : pending.entrySet()) {
+                if (change.getValue() == null) {
+                    delete.setInt(1, change.getKey());
+                    delete.addBatch();
+                    continue;
+                }
+                batch.add(change.getValue());
+                if (batch.size() == BATCH_SIZE) {
+                    upsert(update, insert, batch);
+                    batch.clear();
+                }
+            }
+            upsert(update, insert, batch);
+            delete.executeBatch();
+            connection.commit();
+            pending.clear();
+        } catch (SQLException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackFailure) {
+                e.addSuppressed(rollbackFailure);
+            }
+            throw failure(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws ManagerSaveException {
+        flush();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw failure(e);
+        }
+    }
+
+    private void upsert(PreparedStatement update, PreparedStatement insert, List<Row> batch) throws SQLException {
+        if (batch.isEmpty()) return;
+        for (Row row : batch) {
+            bind(update, row);
+            update.addBatch();
+        }
+        int[] updated = update.executeBatch();
+        boolean inserted = false;
+        for (int i = 0; i < batch.size(); i++) {
+            if (updated[i] == 0 || (updated[i] < 0 && !exists(batch.get(i).id()))) {
+                bind(insert, batch.get(i));
+                insert.addBatch();
+                inserted = true;
+            }
+        }
+        if (inserted) {
+            insert.executeBatch();
+        }
+    }
+
+    // Драйвер может вернуть SUCCESS_NO_INFO вместо числа обновлённых строк: тогда наличие строки проверяется запросом
+    private boolean exists(int id) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM tasks WHERE id = ?")) {
+            statement.setInt(1, id);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next();
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement statement, Row row) throws SQLException {
+        statement.setString(1, row.type().name());
+        statement.setString(2, row.name());
+        statement.setString(3, row.description());
+        statement.setString(4, row.status().name());
+        setNullable(statement, 5, row.epicId(), Types.INTEGER);
+        setNullable(statement, 6, row.startSecond(), Types.BIGINT);
+        setNullable(statement, 7, row.endSecond(), Types.BIGINT);
+        setNullable(statement, 8, row.durationMinutes(), Types.BIGINT);
+        statement.setInt(9, row.id());
+    }
+
+    private static void setNullable(PreparedStatement statement, int index, Number value, int sqlType)
+            throws SQLException {
+        if (value == null) {
+            statement.setNull(index, sqlType);
+        } else if (value instanceof Integer intValue) {
+            statement.setInt(index, intValue);
+        } else {
+            statement.setLong(index, value.longValue());
+        }
+    }
+
+    private static Task read(ResultSet result) throws SQLException {
+        return new Row(TaskType.valueOf(result.getString(1)), result.getString(2), result.getString(3),
+                TaskStatus.valueOf(result.getString(4)), result.getObject(5, Integer.class),
+                result.getObject(6, Long.class), result.getObject(7, Long.class), result.getObject(8, Long.class),
+                result.getInt(9)).toTask();
+    }
+
+    // Строка таблицы tasks; время - в секундах от эпохи, null - значение не задано
+    private record Row(TaskType type, String name, String description, TaskStatus status, Integer epicId,
+                       Long startSecond, Long endSecond, Long durationMinutes, int id) {
+        static Row of(Task task) {
+            return new Row(task.getType(), task.getName(), task.getDescription(), task.getStatus(),
+                    task instanceof Subtask subtask ? subtask.getEpicId() : null,
+                    task.getStartTime().map(time -> time.toEpochSecond(ZoneOffset.UTC)).orElse(null),
+                    task.getEndTime().map(time -> time.toEpochSecond(ZoneOffset.UTC)).orElse(null),
+                    task.getDuration().map(Duration::toMinutes).orElse(null), task.getId());
+        }
+
+        Task toTask() {
+            LocalDateTime startTime = startSecond == null ? null
+                    : LocalDateTime.ofEpochSecond(startSecond, 0, ZoneOffset.UTC);
+            Duration duration = durationMinutes == null ? null : Duration.ofMinutes(durationMinutes);
+            return switch (type) {
+                case TASK -> new Task(name, description, id, status, startTime, duration);
+                case EPIC -> new Epic(name, description, id, status.name());
+                case SUBTASK -> new Subtask(name, description, epicId, id, status, startTime, duration);
+            };
+        }
+    }
+
+    // Доли секунды не хранятся, поэтому граница с ними округляется вверх
+    private static long secondAtOrAfter(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) + (time.getNano() > 0 ? 1 : 0);
+    }
+
+    private List<Task> query(String sql, Binder binder) throws ManagerSaveException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            binder.bind(statement);
+            List<Task> tasks = new ArrayList<>();
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    tasks.add(read(result));
+                }
+            }
+            return tasks;
+        } catch (SQLException e) {
+            throw failure(e);
+        }
+    }
+
+    private interface Binder {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+
+    private ManagerSaveException failure(SQLException e) {
+        return new ManagerSaveException("Возникла ошибка при работе с базой данных '" + url + "': " + e.getMessage());
+    }
+}
@@ -0,0 +1,86 @@
+package tracker.store;
+
+import tracker.model.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Двоичная запись задачи: тип, ID, статус, ID эпика, начало в минутах от эпохи, продолжительность в минутах,
+// название и описание в виде длины и байтов UTF-8. Время эпиков не хранится: оно пересчитывается по подзадачам.
+public final class TaskCodec {
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final long NO_DURATION = -1;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private TaskCodec() {
+    }
+
+    public static byte[] encode(Task task) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            write(output, task);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static void write(DataOutputStream output, Task task) throws IOException {
+        boolean epic = task.getType() == TaskType.EPIC;
+        output.writeByte(task.getType().ordinal());
+        output.writeInt(task.getId());
+        output.writeByte(task.getStatus().ordinal());
+        output.writeInt(task instanceof Subtask subtask ? subtask.getEpicId() : -1);
+        output.writeLong(!epic && task.getStartTime().isPresent()
+                ? Math.floorDiv(task.getStartTime().get().toEpochSecond(ZoneOffset.UTC), 60) : NO_TIME);
+        output.writeLong(!epic && task.getDuration().isPresent()
+                ? task.getDuration().get().toMinutes() : NO_DURATION);
+        writeString(output, task.getName());
+        writeString(output, task.getDescription());
+    }
+
+    public static Task read(ByteBuffer buffer) {
+        TaskType type = TYPES[buffer.get()];
+        int id = buffer.getInt();
+        TaskStatus status = STATUSES[buffer.get()];
+        int epicId = buffer.getInt();
+        long startMinute = buffer.getLong();
+        long minutes = buffer.getLong();
+        String name = readString(buffer);
+        String description = readString(buffer);
+        LocalDateTime startTime = startMinute == NO_TIME ? null
+                : LocalDateTime.ofEpochSecond(startMinute * 60, 0, ZoneOffset.UTC);
+        Duration duration = minutes == NO_DURATION ? null : Duration.ofMinutes(minutes);
+        return switch (type) {
+            case TASK -> new Task(name, description, id, status, startTime, duration);
+            case EPIC -> new Epic(name, description, id, status.name());
+            case SUBTASK -> new Subtask(name, description, epicId, id, status, startTime, duration);
+        };
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
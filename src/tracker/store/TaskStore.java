@@ -0,0 +1,59 @@
+package tracker.store;
+
+import tracker.exceptions.ManagerSaveException;
+import tracker.model.Task;
+import tracker.model.TaskType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Внешнее хранилище отдаёт копии; индексы менеджера над ним растут с доской, около 180 байт на задачу
+public interface TaskStore extends AutoCloseable {
+    Task get(int id) throws ManagerSaveException;
+
+    void put(Task task) throws ManagerSaveException;
+
+    void remove(int id) throws ManagerSaveException;
+
+    int size();
+
+    void forEach(Consumer<Task> action) throws ManagerSaveException;
+
+    default boolean keepsObjects() {
+        return false;
+    }
+
+    // Записи одного типа по возрастанию ID; по умолчанию собираются перебором всего хранилища
+    default List<? extends Task> list(TaskType type) throws ManagerSaveException {
+        List<Task> result = new ArrayList<>();
+        forEach(task -> {
+            if (task.getType() == type) {
+                result.add(task);
+            }
+        });
+        return Collections.unmodifiableList(result);
+    }
+
+    default Map<Integer, ? extends Task> map(TaskType type) throws ManagerSaveException {
+        Map<Integer, Task> result = new LinkedHashMap<>();
+        list(type).forEach(task -> result.put(task.getId(), task));
+        return Collections.unmodifiableMap(result);
+    }
+
+    // Все записи по возрастанию ID
+    default Map<Integer, Task> map() throws ManagerSaveException {
+        Map<Integer, Task> result = new LinkedHashMap<>();
+        forEach(task -> result.put(task.getId(), task));
+        return Collections.unmodifiableMap(result);
+    }
+
+    // Записывает накопленные изменения; после возврата они переживают перезапуск приложения
+    void flush() throws ManagerSaveException;
+
+    @Override
+    void close() throws ManagerSaveException;
+}
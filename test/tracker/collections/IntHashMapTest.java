@@ -0,0 +1,98 @@
+package tracker.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntHashMapTest {
+    private final IntHashMap<String> map = new IntHashMap<>();
+
+    @Test
+    void shouldBehaveLikeHashMap() {
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(2_000) - 100;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key), "Удалено неверное значение.");
+            } else {
+                assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i), "Заменено неверное значение.");
+            }
+        }
+        assertEquals(expected, map, "Содержимое таблицы отличается от HashMap.");
+        for (int key = -100; key < 1_900; key++) {
+            assertEquals(expected.containsKey(key), map.containsKey(key), "Неверный результат поиска ключа " + key);
+        }
+    }
+
+    @Test
+    void shouldSnapshotValuesInAscendingKeyOrder() {
+        for (int id = 10; id > -3; id--) {
+            map.put(id, "v" + id);
+        }
+        map.remove(5);
+        assertEquals(List.of("v-2", "v-1", "v0", "v1", "v2", "v3", "v4", "v6", "v7", "v8", "v9", "v10"),
+                map.snapshot(), "Нарушен порядок значений в снимке.");
+        assertEquals(Set.of(-2, -1, 0, 1, 2, 3, 4, 6, 7, 8, 9, 10), new HashSet<>(map.keySet()),
+                "Неверный набор ключей.");
+    }
+
+    @Test
+    void shouldKeepKeysWithPowerOfTwoStride() {
+        Map<Integer, String> expected = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            map.put(i << 10, "v" + i);
+            expected.put(i << 10, "v" + i);
+        }
+        for (int i = 0; i < 5_000; i += 3) {
+            assertEquals(expected.remove(i << 10), map.remove(i << 10), "Удалено неверное значение.");
+        }
+        assertEquals(expected, map, "Содержимое таблицы отличается от HashMap.");
+        for (int i = 0; i < 5_000; i++) {
+            assertEquals(expected.get(i << 10), map.get(i << 10), "Неверное значение по ключу " + (i << 10));
+        }
+    }
+
+    @Test
+    void shouldFailFastOnModificationDuringIteration() {
+        map.put(1, "v1");
+        map.put(2, "v2");
+        assertThrows(ConcurrentModificationException.class, () -> {
+            for (String value : map.values()) {
+                map.put(3, value);
+            }
+        });
+        assertThrows(NullPointerException.class, () -> map.put(4, null));
+    }
+
+    @Test
+    void shouldReuseSnapshotUntilModified() {
+        map.put(1, "v1");
+        List<String> snapshot = map.snapshot();
+        assertSame(snapshot, map.snapshot(), "Снимок пересоздан без изменений таблицы.");
+
+        map.put(1, "v1'");
+        assertEquals(List.of("v1"), snapshot, "Выданный ранее снимок изменился.");
+        assertEquals(List.of("v1'"), map.snapshot(), "Снимок не обновился после замены значения.");
+    }
+
+    @Test
+    void shouldLookUpSnapshotMapInKeyOrder() {
+        for (int key = 20; key > 0; key -= 2) {
+            map.put(key, "v" + key);
+        }
+        Map<Integer, String> snapshot = map.snapshotMap();
+        assertSame(snapshot, map.snapshotMap(), "Отображение пересоздано без изменений таблицы.");
+        assertEquals("v8", snapshot.get(8), "Значение не найдено по ключу.");
+        assertNull(snapshot.get(7), "Найдено значение отсутствующего ключа.");
+
+        for (int key : snapshot.keySet()) {
+            map.remove(key);
+        }
+        assertEquals(List.of(2, 4, 6, 8, 10, 12, 14, 16, 18, 20), List.copyOf(snapshot.keySet()),
+                "Ключи снимка не по возрастанию или изменились вместе с таблицей.");
+        assertTrue(map.snapshotMap().isEmpty(), "Отображение не обновилось после изменения таблицы.");
+    }
+}
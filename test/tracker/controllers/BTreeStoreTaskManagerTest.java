@@ -0,0 +1,92 @@
+package tracker.controllers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tracker.model.Epic;
+import tracker.model.Subtask;
+import tracker.model.Task;
+import tracker.store.BTreeTaskStore;
+import tracker.store.CachingTaskStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystemException;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BTreeStoreTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
+    private static File file;
+
+    @BeforeEach
+    public void initializeTaskManager() throws IOException {
+        file = File.createTempFile("temp", ".db");
+        taskManager = new InMemoryTaskManager(new BTreeTaskStore(file));
+    }
+
+    @Test
+    void shouldRestoreBoardFromStore() {
+        Epic epic = createEpic(1);
+        taskManager.addEpic(epic);
+        LocalDateTime start = LocalDateTime.now().withSecond(0).withNano(0);
+        Subtask subtask = new Subtask("Подзадача", "Описание", epic.getId(), start.format(Task.DATE_FORMATTER), 30);
+        taskManager.addSubtask(subtask);
+        Task task = createTask(1);
+        taskManager.addTask(task);
+        taskManager.deleteTask(task.getId());
+        taskManager.close();
+
+        taskManager = new InMemoryTaskManager(new BTreeTaskStore(file));
+        assertTrue(taskManager.getTasks().isEmpty(), "Удалённая задача восстановлена.");
+        assertEquals(1, taskManager.getEpicSubtasks(epic.getId()).size(), "Подзадача не привязана к эпику.");
+        assertEquals(start, taskManager.getEpicByID(epic.getId()).getStartTime().get(),
+                "Время эпика не пересчитано по подзадачам.");
+        taskManager.addTask(createTask(2));
+        assertTrue(taskManager.getTasks().getFirst().getId() > subtask.getId(),
+                "ID новой задачи пересекается с ID восстановленных задач.");
+    }
+
+    @Test
+    void shouldKeepCachedTasksBounded() {
+        taskManager.close();
+        CachingTaskStore store = new CachingTaskStore(new BTreeTaskStore(file), 16);
+        taskManager = new InMemoryTaskManager(store, Period.ofYears(1), Clock.systemDefaultZone());
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(createTask(i));
+        }
+        taskManager.addAll(tasks);
+        for (Task task : tasks) {
+            assertEquals(task.getName(), taskManager.getTaskByID(task.getId()).getName(),
+                    "Задача прочитана из хранилища с ошибкой.");
+        }
+        assertTrue(store.getCachedTasks() <= 16, "Кэш задач не ограничен.");
+        assertEquals(tasks, taskManager.getTasks(), "Список задач не прочитан из хранилища.");
+    }
+
+    @Test
+    void shouldReturnCopiesOfStoredTasks() {
+        Task task = createTask(1);
+        taskManager.addTask(task);
+        task.setName("Изменённая задача");
+        Task stored = taskManager.getTaskByID(task.getId());
+        stored.setDescription("Изменённое описание");
+
+        assertEquals("Test Task1", stored.getName(), "Изменение задачи без обновления попало в менеджер.");
+        assertEquals("Test Task1 description", taskManager.getTaskByID(task.getId()).getDescription(),
+                "Изменение полученной задачи без обновления попало в менеджер.");
+    }
+
+    @AfterEach
+    void deleteTempFile() throws FileSystemException {
+        taskManager.close();
+        if (!file.delete()) {
+            throw new FileSystemException("Не удалось удалить временный файл '" + file.getAbsolutePath() + "'");
+        }
+    }
+}
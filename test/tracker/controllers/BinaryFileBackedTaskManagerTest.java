@@ -0,0 +1,91 @@
+package tracker.controllers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tracker.model.Epic;
+import tracker.model.Subtask;
+import tracker.model.Task;
+import tracker.model.TaskStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryFileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
+    private static File file;
+
+    @BeforeEach
+    public void initializeTaskManager() {
+        try {
+            file = File.createTempFile("temp", ".bin");
+            taskManager = FileBackedTaskManager.loadFromFile(file, FileBackedTaskManager.SaveMode.SNAPSHOT,
+                    FileBackedTaskManager.WriteOptions.SYNCHRONOUS
+                            .withSnapshotFormat(FileBackedTaskManager.SnapshotFormat.BINARY));
+        } catch (IOException e) {
+            System.out.println("Возникла ошибка при создании файла temp*.bin");
+        }
+    }
+
+    @Test
+    void shouldSaveAndLoadBinarySnapshot() throws IOException {
+        Epic epic = createEpic(1);
+        taskManager.addEpic(epic);
+        LocalDateTime start = LocalDateTime.now().withSecond(0).withNano(0);
+        Task task = new Task("Задача", null, start.format(Task.DATE_FORMATTER), 30);
+        taskManager.addTask(task);
+        Subtask subtask = new Subtask("Подзадача", "Описание", epic.getId(),
+                start.plusHours(1).format(Task.DATE_FORMATTER), 45);
+        taskManager.addSubtask(subtask);
+        subtask.setStatus("DONE");
+        taskManager.updateSubtask(subtask.getId(), subtask);
+        Subtask withoutTime = createSubtask(epic, 3);
+        taskManager.addSubtask(withoutTime);
+
+        assertTrue(BinarySnapshot.isBinary(ByteBuffer.wrap(Files.readAllBytes(file.toPath()))),
+                "Снимок записан не в двоичном формате.");
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(taskManager.getAllTasks().keySet(), restored.getAllTasks().keySet(),
+                "Восстановлены не все задачи.");
+        assertNull(restored.getTaskByID(task.getId()).getDescription(), "Пустое описание восстановлено неверно.");
+        assertEquals(task.getStartTime(), restored.getTaskByID(task.getId()).getStartTime(),
+                "Время начала задачи восстановлено неверно.");
+        Subtask restoredSubtask = restored.getSubtaskByID(subtask.getId());
+        assertEquals(TaskStatus.DONE, restoredSubtask.getStatus(), "Статус подзадачи восстановлен неверно.");
+        assertEquals(subtask.getDuration(), restoredSubtask.getDuration(),
+                "Продолжительность подзадачи восстановлена неверно.");
+        assertTrue(restored.getSubtaskByID(withoutTime.getId()).getStartTime().isEmpty(),
+                "У подзадачи без времени восстановлено время начала.");
+        Epic restoredEpic = restored.getEpicByID(epic.getId());
+        assertEquals(taskManager.getEpicByID(epic.getId()).getStartTime(), restoredEpic.getStartTime(),
+                "Время эпика не пересчитано по подзадачам.");
+        assertEquals(taskManager.getEpicByID(epic.getId()).getStatus(), restoredEpic.getStatus(),
+                "Статус эпика не пересчитан по подзадачам.");
+    }
+
+    @Test
+    void shouldNotReuseIdsOfDeletedTasksAfterReload() {
+        taskManager.addTask(createTask(1));
+        Task deleted = createTask(2);
+        taskManager.addTask(deleted);
+        taskManager.deleteTask(deleted.getId());
+
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file);
+        Task task = createTask(3);
+        restored.addTask(task);
+        assertTrue(task.getId() > deleted.getId(), "После загрузки повторно выдан ID удалённой задачи.");
+    }
+
+    @AfterEach
+    void deleteTempFile() throws IOException {
+        Files.deleteIfExists(taskManager.getHistoryFile().toPath());
+        if (!file.delete()) {
+            throw new FileSystemException("Не удалось удалить временный файл '" + file.getAbsolutePath() + "'");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package tracker.controllers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tracker.model.Epic;
+import tracker.model.Subtask;
+import tracker.model.Task;
+import tracker.model.TaskStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    private static final int THREADS = 8;
+    private static final int TASKS_PER_THREAD = 250;
+
+    @BeforeEach
+    public void initializeTaskManager() {
+        taskManager = new ConcurrentTaskManager();
+    }
+
+    @Test
+    void shouldKeepIndexesConsistentUnderConcurrentWrites() throws Exception {
+        Epic epic = createEpic(1);
+        taskManager.addEpic(epic);
+        LocalDateTime startTime = LocalDateTime.now();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            final int offset = thread * TASKS_PER_THREAD;
+            futures.add(executor.submit(() -> {
+                for (int i = offset; i < offset + TASKS_PER_THREAD; i++) {
+                    String taskStart = startTime.plusMinutes(10L * i).format(Task.DATE_FORMATTER);
+                    if (i % 2 == 0) {
+                        taskManager.addTask(new Task("Задача" + i, "Тестовая задача", taskStart, 5));
+                    } else {
+                        taskManager.addSubtask(new Subtask("Подзадача" + i, "Тестовая подзадача", epic.getId(),
+                                taskStart, 5));
+                    }
+                    taskManager.getPrioritizedTasks();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+
+        int total = THREADS * TASKS_PER_THREAD;
+        assertEquals(total / 2, taskManager.getTasks().size(), "Потеряны задачи при параллельной записи.");
+        assertEquals(total / 2, taskManager.getEpicSubtasks(epic.getId()).size(),
+                "Потеряны подзадачи эпика при параллельной записи.");
+        assertEquals(total + 1, taskManager.getPrioritizedTasks().size(),
+                "Отсортированный список задач рассогласован после параллельной записи.");
+        assertEquals(total, taskManager.getTaskIntervals().size(),
+                "Интервалы задач рассогласованы после параллельной записи.");
+    }
+
+    @Test
+    void shouldAddTasksInDistinctFreeSlotsUnderConcurrency() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < TASKS_PER_THREAD / 10; i++) {
+                    Task task = createTask(i);
+                    task.setDuration(15);
+                    taskManager.addTaskInFreeSlot(task);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+
+        assertEquals(THREADS * TASKS_PER_THREAD / 10, taskManager.getTaskIntervals().size(),
+                "Параллельно размещённые задачи получили одно и то же время.");
+    }
+
+    @Test
+    void shouldRecordHistoryFromConcurrentReaders() throws Exception {
+        for (int i = 0; i < TASKS_PER_THREAD; i++) {
+            taskManager.addTask(createTask(i));
+        }
+        List<Task> tasks = taskManager.getTasks();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            futures.add(executor.submit(() -> {
+                for (Task task : tasks) {
+                    taskManager.getTaskByID(task.getId());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+
+        List<Task> history = taskManager.getHistory();
+        assertEquals(TASKS_PER_THREAD, history.size(), "История рассогласована после параллельного чтения.");
+        assertEquals(TASKS_PER_THREAD, history.stream().map(Task::getId).distinct().count(),
+                "Задача записана в историю дважды.");
+    }
+
+    @Test
+    void shouldReturnEpicCopiesUnaffectedByLaterWrites() {
+        Epic epic = createEpic(1);
+        taskManager.addEpic(epic);
+        Epic read = taskManager.getEpicByID(epic.getId());
+        List<Epic> epics = taskManager.getEpics();
+        List<Task> history = taskManager.getHistory();
+
+        LocalDateTime startTime = LocalDateTime.now().withSecond(0).withNano(0);
+        Subtask subtask = new Subtask("Подзадача1", "Тестовая подзадача #1", epic.getId(),
+                startTime.format(Task.DATE_FORMATTER), 30);
+        subtask.setStatus("DONE");
+        taskManager.addSubtask(subtask);
+
+        assertEquals(TaskStatus.NEW, read.getStatus(), "Полученный эпик изменён последующей записью.");
+        assertTrue(read.getSubtasks().isEmpty(), "Подзадача попала в полученный ранее эпик.");
+        assertTrue(read.getStartTime().isEmpty(), "Время полученного эпика изменено последующей записью.");
+        assertEquals(TaskStatus.NEW, epics.getFirst().getStatus(), "Эпик из списка изменён последующей записью.");
+        assertEquals(TaskStatus.NEW, history.getFirst().getStatus(), "Эпик из истории изменён последующей записью.");
+        Epic updated = taskManager.getEpicByID(epic.getId());
+        assertEquals(TaskStatus.DONE, updated.getStatus(), "Копия эпика не отражает его текущее состояние.");
+        assertEquals(startTime, updated.getStartTime().get(), "Копия эпика не отражает его текущее время.");
+        assertEquals(1, updated.getSubtasks().size(), "Копия эпика не содержит его подзадач.");
+    }
+}
@@ -3,6 +3,7 @@ package tracker.controllers;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import tracker.exceptions.TasksIntersectionException;
 import tracker.model.Epic;
 import tracker.model.Subtask;
 import tracker.model.Task;
@@ -10,6 +11,12 @@ import tracker.model.Task;
 import java.io.*;
 import java.nio.file.FileSystemException;
 import java.nio.file.Files;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -85,8 +92,165 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         assertEquals(3, taskManager.getPrioritizedTasks().size());
     }
 
+    @Test
+    void shouldKeepIntervalsOfImportedTasks() {
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write("id,type,name,status,description,duration,startTime,endTime,epic\n");
+            writer.write("1,TASK,Задача1,NEW,Тестовая задача #1,60,14.04.2025 13:15,14.04.2025 14:15,\n");
+        } catch (IOException e) {
+            System.out.println("Возникла ошибка при открытии файла '" + file.getName()
+                    + "' в тесте shouldKeepIntervalsOfImportedTasks");
+        }
+        taskManager = FileBackedTaskManager.loadFromFile(file);
+        assertThrows(TasksIntersectionException.class, () -> taskManager.addTask(new Task("Задача2",
+                        "Тестовая задача #2", "14.04.2025 14:00", 30)),
+                "Загруженная из файла задача не учитывается при проверке пересечений.");
+    }
+
+    @Test
+    void shouldCheckIntersectionsWithOverlappingImportedTasks() {
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write("id,type,name,status,description,duration,startTime,endTime,epic\n");
+            writer.write("1,TASK,Задача1,NEW,Тестовая задача #1,30,14.04.2025 13:15,14.04.2025 13:45,\n");
+            writer.write("2,TASK,Задача2,NEW,Тестовая задача #2,60,14.04.2025 13:15,14.04.2025 14:15,\n");
+            writer.write("3,TASK,Задача3,NEW,Тестовая задача #3,30,14.04.2025 14:00,14.04.2025 14:30,\n");
+        } catch (IOException e) {
+            System.out.println("Возникла ошибка при открытии файла '" + file.getName()
+                    + "' в тесте shouldCheckIntersectionsWithOverlappingImportedTasks");
+        }
+        taskManager = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(3, taskManager.getTaskIntervals().size(), "Интервалы загруженных задач потеряны.");
+        assertThrows(TasksIntersectionException.class, () -> taskManager.addTask(new Task("Задача4",
+                        "Тестовая задача #4", "14.04.2025 13:50", 5)),
+                "Не найдено пересечение с задачей, перекрытой другой загруженной задачей.");
+        taskManager.deleteTask(1);
+        assertThrows(TasksIntersectionException.class, () -> taskManager.addTask(new Task("Задача5",
+                        "Тестовая задача #5", "14.04.2025 13:20", 5)),
+                "Вместе с задачей освобождён интервал другой задачи с тем же началом.");
+    }
+
+    @Test
+    void shouldContinueIdsAfterImport() {
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write("id,type,name,status,description,duration,startTime,endTime,epic\n");
+            writer.write("4,EPIC,Эпик1,NEW,Тестовый Эпик #1, , , ,\n");
+            writer.write("7,SUBTASK,Подзадача2,NEW,Тестовая подзадача #2, , , ,4\n");
+        } catch (IOException e) {
+            System.out.println("Возникла ошибка при открытии файла '" + file.getName()
+                    + "' в тесте shouldContinueIdsAfterImport");
+        }
+        taskManager = FileBackedTaskManager.loadFromFile(file);
+        Task task = createTask(1);
+        taskManager.addTask(task);
+        assertEquals(8, task.getId(), "ID новой задачи пересекается с ID загруженных из файла задач.");
+    }
+
+    @Test
+    void shouldNotReuseIdsOfDeletedTasksAfterReload() {
+        taskManager.addTask(createTask(1));
+        Task deleted = createTask(2);
+        taskManager.addTask(deleted);
+        taskManager.deleteTask(deleted.getId());
+
+        taskManager = FileBackedTaskManager.loadFromFile(file);
+        Task task = createTask(3);
+        taskManager.addTask(task);
+        assertTrue(task.getId() > deleted.getId(), "После загрузки повторно выдан ID удалённой задачи.");
+    }
+
+    @Test
+    void shouldKeepPlanningHorizonAndClockOnImport() {
+        LocalDateTime now = LocalDateTime.of(2025, 4, 14, 12, 0);
+        taskManager = FileBackedTaskManager.loadFromFile(file, Period.ofMonths(1),
+                Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        assertEquals(now.plusMonths(1), taskManager.getPlanningLimit(),
+                "Горизонт планирования и часы не переданы загруженному менеджеру.");
+        assertThrows(TasksIntersectionException.class, () -> taskManager.addTask(new Task("Задача1",
+                        "Тестовая задача #1", "15.05.2025 12:00", 30)),
+                "Задача за горизонтом планирования загруженного менеджера добавлена.");
+    }
+
+    @Test
+    void shouldLinkSubtasksListedBeforeEpic() {
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write("id,type,name,status,description,duration,startTime,endTime,epic\n");
+            writer.write("7,SUBTASK,Подзадача2,NEW,Тестовая подзадача #2,20,14.04.2025 14:00,14.04.2025 14:20,4\n");
+            writer.write("4,EPIC,Эпик1,NEW,Тестовый Эпик #1, , , ,\n");
+            writer.write("8,SUBTASK,Подзадача3,NEW,Тестовая подзадача #3,30,14.04.2025 13:00,14.04.2025 13:30,4\n");
+        } catch (IOException e) {
+            System.out.println("Возникла ошибка при открытии файла '" + file.getName()
+                    + "' в тесте shouldLinkSubtasksListedBeforeEpic");
+        }
+        taskManager = FileBackedTaskManager.loadFromFile(file);
+        Epic epic = taskManager.getEpicByID(4);
+        assertEquals(2, taskManager.getEpicSubtasks(4).size(), "Подзадачи не привязаны к эпику.");
+        assertEquals("14.04.2025 13:00", epic.getStartTime().get().format(Task.DATE_FORMATTER),
+                "Время начала эпика не пересчитано.");
+        assertEquals("14.04.2025 14:20", epic.getEndTime().get().format(Task.DATE_FORMATTER),
+                "Время окончания эпика не пересчитано.");
+    }
+
+    @Test
+    void shouldLoadLargeFileInParallel() {
+        Epic epic = createEpic(1);
+        taskManager.addEpic(epic);
+        LocalDateTime start = LocalDateTime.now().withSecond(0).withNano(0);
+        List<Task> items = new ArrayList<>();
+        for (int i = 0; i < 30_000; i++) {
+            String startTime = start.plusMinutes(i * 10L).format(Task.DATE_FORMATTER);
+            items.add(i % 100 == 0 ? new Subtask("Подзадача" + i, "Описание", epic.getId(), startTime, 5)
+                    : new Task("Задача" + i, "Описание", startTime, 5));
+        }
+        taskManager.addAll(items);
+
+        FileBackedTaskManager sequential = FileBackedTaskManager.loadFromFile(file);
+        FileBackedTaskManager parallel = FileBackedTaskManager.loadFromFile(file,
+                FileBackedTaskManager.SaveMode.SNAPSHOT, FileBackedTaskManager.WriteOptions.SYNCHRONOUS, 4);
+        assertEquals(sequential.getAllTasks().keySet(), parallel.getAllTasks().keySet(),
+                "Параллельная загрузка восстановила другой набор задач.");
+        assertEquals(sequential.getPrioritizedTasks(), parallel.getPrioritizedTasks(),
+                "Порядок задач после параллельной загрузки отличается.");
+        assertEquals(300, parallel.getEpicSubtasks(epic.getId()).size(), "Подзадачи не привязаны к эпику.");
+        assertEquals(sequential.getEpicByID(epic.getId()).getEndTime(),
+                parallel.getEpicByID(epic.getId()).getEndTime(),
+                "Время эпика после параллельной загрузки отличается.");
+    }
+
+    @Test
+    void shouldSaveBatchIntoFile() {
+        Epic epic = createEpic(1);
+        taskManager.addEpic(epic);
+        taskManager.addAll(List.of(createTask(1), createTask(2), createSubtask(epic, 3)));
+        taskManager = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(2, taskManager.getTasks().size(), "Задачи из пакета не сохранены в файл.");
+        assertEquals(1, taskManager.getEpicSubtasks(epic.getId()).size(), "Подзадача из пакета не сохранена в файл.");
+    }
+
+    @Test
+    void shouldRestoreHistoryAfterReload() {
+        Task task1 = createTask(1);
+        Task task2 = createTask(2);
+        Task task3 = createTask(3);
+        taskManager.addTask(task1);
+        taskManager.addTask(task2);
+        taskManager.addTask(task3);
+        taskManager.getTaskByID(task1.getId());
+        taskManager.getTaskByID(task2.getId());
+        taskManager.getTaskByID(task3.getId());
+        taskManager.getTaskByID(task1.getId());
+        taskManager.deleteTask(task3.getId());
+        taskManager.close();
+
+        taskManager = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(List.of(task2, task1), taskManager.getHistory(), "История просмотров не восстановлена.");
+        assertSame(taskManager.getTaskByID(task1.getId()), taskManager.getHistory().getLast(),
+                "В истории не задача загруженной доски.");
+        taskManager.close();
+    }
+
     @AfterEach
-    void deleteTempFile() throws FileSystemException {
+    void deleteTempFile() throws IOException {
+        Files.deleteIfExists(taskManager.getHistoryFile().toPath());
         if (!file.delete()) {
             throw new FileSystemException("Не удалось удалить временный файл '" + file.getAbsolutePath() + "'");
         }
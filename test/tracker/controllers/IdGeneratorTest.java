@@ -0,0 +1,24 @@
+package tracker.controllers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdGeneratorTest {
+    private final IdGenerator idGenerator = new IdGenerator();
+
+    @Test
+    void shouldReserveConsecutiveBlock() {
+        assertEquals(1, idGenerator.next());
+        assertEquals(2, idGenerator.reserve(10), "Блок ID начинается не со следующего свободного ID.");
+        assertEquals(12, idGenerator.next(), "Выдан ID из зарезервированного блока.");
+    }
+
+    @Test
+    void shouldNeverMoveBackwards() {
+        idGenerator.advanceTo(7);
+        idGenerator.advanceTo(3);
+        assertEquals(8, idGenerator.next(), "Счётчик ID сдвинулся назад.");
+        assertThrows(IllegalArgumentException.class, () -> idGenerator.reserve(0));
+    }
+}
@@ -4,10 +4,13 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import tracker.exceptions.TasksIntersectionException;
 import tracker.model.Epic;
 import tracker.model.Subtask;
 import tracker.model.Task;
 
+import java.time.*;
+
 class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
     @BeforeEach
     public void initializeTaskManager() {
@@ -56,6 +59,15 @@ class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
         assertNotEquals(task3.getId(), task4.getId(), "Конфликт - у обеих задач ID = '" + task3.getId() + "'.");
     }
 
+    @Test
+    void shouldAssignIdsIndependentlyInEachManager() {
+        Task task1 = createTask(1);
+        Task task2 = createTask(2);
+        taskManager.addTask(task1);
+        new InMemoryTaskManager().addTask(task2);
+        assertEquals(task1.getId(), task2.getId(), "Менеджеры задач используют общий счётчик ID.");
+    }
+
     @Test
     void shouldKeepTasksInManagerUnaltered() {
         Task task1 = createTask(1);
@@ -91,4 +103,44 @@ class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
         task2.setId(task1.getId());
         assertEquals(task1, task2, "Задачи с одинаковыми ID некорректно считаются разными");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldMovePlanningHorizonWithCurrentTime() {
+        MutableClock clock = new MutableClock(LocalDateTime.of(2025, 4, 14, 12, 0));
+        taskManager = new InMemoryTaskManager(Period.ofMonths(1), clock);
+        Task task = new Task("Задача1", "Тестовая задача #1", "14.06.2025 12:00", 30);
+
+        assertThrows(TasksIntersectionException.class, () -> taskManager.addTask(task),
+                "Задача за горизонтом планирования не отклонена.");
+        clock.setDateTime(LocalDateTime.of(2025, 5, 20, 12, 0));
+        assertDoesNotThrow(() -> taskManager.addTask(task),
+                "Горизонт планирования не сдвинулся вместе с текущим временем.");
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(LocalDateTime dateTime) {
+            setDateTime(dateTime);
+        }
+
+        private void setDateTime(LocalDateTime dateTime) {
+            instant = dateTime.toInstant(ZoneOffset.UTC);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
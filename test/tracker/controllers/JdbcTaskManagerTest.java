@@ -0,0 +1,116 @@
+package tracker.controllers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tracker.model.Epic;
+import tracker.model.Subtask;
+import tracker.model.Task;
+import tracker.model.TaskStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystemException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JdbcTaskManagerTest extends TaskManagerTest<JdbcTaskManager> {
+    private static File file;
+    private static String url;
+
+    @BeforeEach
+    public void initializeTaskManager() {
+        try {
+            file = File.createTempFile("temp", ".mv.db");
+            url = "jdbc:h2:file:" + file.getAbsolutePath().replaceFirst("\\.mv\\.db$", "");
+            taskManager = new JdbcTaskManager(url);
+        } catch (IOException e) {
+            System.out.println("Возникла ошибка при создании файла temp*.mv.db");
+        }
+    }
+
+    @Test
+    void shouldRestoreBoardFromDatabase() {
+        Epic epic = createEpic(1);
+        taskManager.addEpic(epic);
+        LocalDateTime start = LocalDateTime.now().withSecond(0).withNano(0);
+        Subtask subtask = new Subtask("Подзадача", "Описание", epic.getId(), start.format(Task.DATE_FORMATTER), 30);
+        taskManager.addSubtask(subtask);
+        Task task = createTask(1);
+        taskManager.addTask(task);
+        taskManager.deleteTask(task.getId());
+        taskManager.close();
+
+        taskManager = new JdbcTaskManager(url);
+        assertTrue(taskManager.getTasks().isEmpty(), "Удалённая задача восстановлена.");
+        assertEquals(1, taskManager.getEpicSubtasks(epic.getId()).size(), "Подзадача не привязана к эпику.");
+        assertEquals(start, taskManager.getEpicByID(epic.getId()).getStartTime().get(),
+                "Время эпика не пересчитано по подзадачам.");
+        assertEquals(2, taskManager.getStore().size(), "В таблице остались лишние записи.");
+    }
+
+    @Test
+    void shouldAnswerQueriesFromDatabase() {
+        Epic epic = createEpic(1);
+        taskManager.addEpic(epic);
+        LocalDateTime start = LocalDateTime.now().withSecond(0).withNano(0);
+        Subtask subtask = new Subtask("Подзадача", "Описание", epic.getId(), start.format(Task.DATE_FORMATTER), 30);
+        Task task = new Task("Задача", "Описание", start.plusHours(1).format(Task.DATE_FORMATTER), 30);
+        taskManager.addAll(List.of(subtask, task));
+        task.setStatus("DONE");
+        taskManager.updateTask(task.getId(), task);
+
+        assertEquals(subtask.getName(), taskManager.getEpicSubtasks(epic.getId()).get(subtask.getId()).getName(),
+                "Подзадача эпика не найдена запросом.");
+        assertEquals(List.of(epic, subtask), taskManager.getPrioritizedTasks(start, start.plusHours(1), 0),
+                "Выборка по времени не совпадает с порядком задач.");
+        assertEquals(TaskStatus.DONE, taskManager.getStore().get(task.getId()).getStatus(),
+                "Изменение статуса не записано в таблицу.");
+    }
+
+    @Test
+    void shouldBuildQueryResultsFromRows() {
+        Epic epic = createEpic(1);
+        taskManager.addEpic(epic);
+        LocalDateTime start = LocalDateTime.now().withSecond(0).withNano(0);
+        Subtask subtask = new Subtask("Подзадача", "Описание", epic.getId(), start.format(Task.DATE_FORMATTER), 30);
+        Task task = new Task("Задача", "Описание", start.plusHours(1).format(Task.DATE_FORMATTER), 30);
+        taskManager.addAll(List.of(subtask, task));
+        taskManager.close();
+
+        taskManager = new JdbcTaskManager(url);
+        List<Task> prioritized = taskManager.getPrioritizedTasks();
+        assertEquals(List.of(epic, subtask, task), prioritized, "Выборка по времени не совпадает с порядком задач.");
+        assertEquals(start.plusHours(1), prioritized.get(2).getStartTime().get(),
+                "Время задачи не прочитано из строки таблицы.");
+        assertSame(taskManager.getEpicsMap().get(epic.getId()), prioritized.get(0),
+                "Эпик выборки не совпадает с эпиком менеджера.");
+        assertEquals(subtask.getName(), taskManager.getEpicSubtasks(epic.getId()).get(subtask.getId()).getName(),
+                "Подзадача эпика не прочитана из строки таблицы.");
+        assertEquals(0, taskManager.getCachedTasks(), "Результаты запроса прочитаны через кэш менеджера.");
+    }
+
+    @Test
+    void shouldReturnCopiesOfPendingRecords() {
+        Task task = createTask(1);
+        task.setId(100);
+        taskManager.getStore().put(task);
+        task.setName("Изменённая задача");
+        Task pending = taskManager.getStore().get(100);
+        pending.setDescription("Изменённое описание");
+
+        assertEquals("Test Task1", pending.getName(), "Хранилище вернуло объект, переданный в put().");
+        assertEquals("Test Task1 description", taskManager.getStore().get(100).getDescription(),
+                "Хранилище вернуло свой объект несохранённого изменения.");
+    }
+
+    @AfterEach
+    void deleteTempFile() throws FileSystemException {
+        taskManager.close();
+        if (!file.delete()) {
+            throw new FileSystemException("Не удалось удалить временный файл '" + file.getAbsolutePath() + "'");
+        }
+    }
+}
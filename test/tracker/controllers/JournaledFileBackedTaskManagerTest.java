@@ -0,0 +1,217 @@
+package tracker.controllers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tracker.model.Epic;
+import tracker.model.Subtask;
+import tracker.model.Task;
+import tracker.model.TaskStatus;
+
+import java.io.*;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournaledFileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
+    private static File file;
+
+    @BeforeEach
+    public void initializeTaskManager() {
+        try {
+            file = File.createTempFile("temp", ".txt");
+            taskManager = FileBackedTaskManager.loadFromFile(file, FileBackedTaskManager.SaveMode.JOURNAL);
+        } catch (IOException e) {
+            System.out.println("Возникла ошибка при создании файла temp*.txt");
+        }
+    }
+
+    @Test
+    void shouldAppendChangesToJournal() throws IOException {
+        Epic epic = createEpic(1);
+        taskManager.addEpic(epic);
+        Task task = createTask(1);
+        taskManager.addTask(task);
+        Subtask subtask = createSubtask(epic, 2);
+        taskManager.addSubtask(subtask);
+
+        assertTrue(Files.readString(file.toPath()).isEmpty(), "Файл перезаписан при изменении в режиме журнала.");
+        long journalSize = taskManager.getJournalFile().length();
+        taskManager.deleteTask(task.getId());
+        assertTrue(taskManager.getJournalFile().length() > journalSize, "Удаление задачи не попало в журнал.");
+
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file);
+        assertTrue(restored.getTasks().isEmpty(), "Удалённая задача восстановлена из журнала.");
+        assertEquals(List.of(epic), restored.getEpics(), "Эпик не восстановлен из журнала.");
+        assertEquals(subtask.getId(), restored.getEpicSubtasks(epic.getId()).get(subtask.getId()).getId(),
+                "Подзадача не восстановлена из журнала.");
+    }
+
+    @Test
+    void shouldCompactJournalIntoFile() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            tasks.add(createTask(i));
+        }
+        taskManager.addAll(tasks);
+        assertFalse(taskManager.getJournalFile().exists(), "Пакет больше порога сжатия записан в журнал.");
+        assertEquals(1001, Files.readAllLines(file.toPath()).size(), "Пакет не записан в файл.");
+
+        Task task = tasks.getFirst();
+        for (int i = 0; i < 1000; i++) {
+            task.setStatus(i % 2 == 0 ? "DONE" : "IN_PROGRESS");
+            taskManager.updateTask(task.getId(), task);
+        }
+        assertFalse(taskManager.getJournalFile().exists(), "Журнал не свёрнут после достижения порога.");
+        assertEquals(TaskStatus.IN_PROGRESS, FileBackedTaskManager.loadFromFile(file).getTasksMap()
+                .get(task.getId()).getStatus(), "Последнее изменение потеряно при сворачивании журнала.");
+    }
+
+    @Test
+    void shouldNotReuseIdsOfDeletedTasksAfterCompaction() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            tasks.add(createTask(i));
+        }
+        taskManager.addAll(tasks);
+        taskManager.clearTasks();
+        assertFalse(taskManager.getJournalFile().exists(), "Удаление пакета не свёрнуто в файл.");
+
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file,
+                FileBackedTaskManager.SaveMode.JOURNAL);
+        Task task = createTask(1000);
+        restored.addTask(task);
+        assertTrue(task.getId() > tasks.getLast().getId(), "После загрузки повторно выдан ID удалённой задачи.");
+    }
+
+    @Test
+    void shouldSkipIncompleteJournalRecord() throws IOException {
+        Task task = createTask(1);
+        taskManager.addTask(task);
+        try (FileWriter writer = new FileWriter(taskManager.getJournalFile(), true)) {
+            writer.write("DELETE," + task.getId());
+        }
+        assertEquals(List.of(task), FileBackedTaskManager.loadFromFile(file).getTasks(),
+                "Недописанная запись журнала применена при загрузке.");
+    }
+
+    @Test
+    void shouldTruncateIncompleteJournalRecordBeforeAppend() throws IOException {
+        Task task = createTask(1);
+        taskManager.addTask(task);
+        try (FileWriter writer = new FileWriter(taskManager.getJournalFile(), true)) {
+            writer.write("DELETE," + task.getId());
+        }
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file,
+                FileBackedTaskManager.SaveMode.JOURNAL);
+        Task newTask = createTask(2);
+        restored.addTask(newTask);
+
+        assertEquals(List.of(task, newTask), FileBackedTaskManager.loadFromFile(file).getTasks(),
+                "Новая запись журнала склеилась с недописанной.");
+        assertFalse(Files.readString(taskManager.getJournalFile().toPath()).contains("DELETE"),
+                "Недописанная запись не отрезана от журнала.");
+    }
+
+    @Test
+    void shouldSkipJournalRecordWithWrongChecksum() throws IOException {
+        Task task = createTask(1);
+        taskManager.addTask(task);
+        try (FileWriter writer = new FileWriter(taskManager.getJournalFile(), true)) {
+            writer.write("0,DELETE," + task.getId() + "\n");
+        }
+        assertEquals(List.of(task), FileBackedTaskManager.loadFromFile(file).getTasks(),
+                "Запись журнала с неверной контрольной суммой применена при загрузке.");
+    }
+
+    @Test
+    void shouldTruncateJournalAtRecordWithoutChecksum() throws IOException {
+        Task task = createTask(1);
+        taskManager.addTask(task);
+        try (FileWriter writer = new FileWriter(taskManager.getJournalFile(), true)) {
+            writer.write("DELETE," + task.getId() + "\n");
+        }
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file,
+                FileBackedTaskManager.SaveMode.JOURNAL);
+
+        assertEquals(List.of(task), restored.getTasks(), "Запись журнала без контрольной суммы применена.");
+        assertFalse(Files.readString(taskManager.getJournalFile().toPath()).contains("DELETE"),
+                "Запись без контрольной суммы не отрезана от журнала.");
+    }
+
+    @Test
+    void shouldIgnoreJournalLeftAfterSnapshotReplacement() throws IOException {
+        Task task = createTask(1);
+        taskManager.addTask(task);
+        byte[] journal = Files.readAllBytes(taskManager.getJournalFile().toPath());
+        FileBackedTaskManager snapshotManager = FileBackedTaskManager.loadFromFile(file);
+        task.setStatus("DONE");
+        snapshotManager.updateTask(task.getId(), task);
+        assertFalse(taskManager.getJournalFile().exists(), "Журнал не удалён после записи снимка.");
+
+        // Сбой после замены снимка, но до удаления выведенного из оборота журнала
+        File retiredJournalFile = TaskFileWriter.retiredJournalFile(taskManager.getJournalFile());
+        Files.write(retiredJournalFile.toPath(), journal);
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file);
+
+        assertEquals(TaskStatus.DONE, restored.getTasksMap().get(task.getId()).getStatus(),
+                "Оставшийся журнал применён поверх более нового снимка.");
+        assertFalse(retiredJournalFile.exists(), "Оставшийся журнал не удалён при загрузке.");
+    }
+
+    @Test
+    void shouldCompleteInterruptedSnapshotReplacement() throws IOException {
+        Task task = createTask(1);
+        taskManager.addTask(task);
+        byte[] journal = Files.readAllBytes(taskManager.getJournalFile().toPath());
+        FileBackedTaskManager snapshotManager = FileBackedTaskManager.loadFromFile(file);
+        task.setStatus("DONE");
+        snapshotManager.updateTask(task.getId(), task);
+
+        // Сбой после вывода журнала из оборота, но до замены снимка
+        File snapshotFile = TaskFileWriter.snapshotFile(file);
+        Files.move(file.toPath(), snapshotFile.toPath());
+        Files.createFile(file.toPath());
+        Files.write(TaskFileWriter.retiredJournalFile(taskManager.getJournalFile()).toPath(), journal);
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file);
+
+        assertEquals(TaskStatus.DONE, restored.getTasksMap().get(task.getId()).getStatus(),
+                "Прерванная замена снимка не доведена до конца при загрузке.");
+        assertFalse(snapshotFile.exists(), "Временный файл снимка не занял место основного.");
+    }
+
+    @Test
+    void shouldReloadJournalBoardWithoutSnapshot() throws IOException {
+        File newFile = new File(file.getAbsolutePath() + ".new");
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(newFile,
+                FileBackedTaskManager.SaveMode.JOURNAL);
+        try {
+            Epic epic = createEpic(1);
+            manager.addEpic(epic);
+            Task task = createTask(1);
+            manager.addTask(task);
+            manager.addSubtask(createSubtask(epic, 2));
+            assertFalse(newFile.exists(), "Снимок записан до сворачивания журнала.");
+
+            FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(newFile,
+                    FileBackedTaskManager.SaveMode.JOURNAL);
+            assertEquals(manager.getAllTasks(), restored.getAllTasks(), "Доска не восстановлена из журнала.");
+        } finally {
+            Files.deleteIfExists(manager.getJournalFile().toPath());
+            Files.deleteIfExists(manager.getHistoryFile().toPath());
+            Files.deleteIfExists(newFile.toPath());
+        }
+    }
+
+    @AfterEach
+    void deleteTempFile() throws IOException {
+        Files.deleteIfExists(taskManager.getJournalFile().toPath());
+        Files.deleteIfExists(taskManager.getHistoryFile().toPath());
+        if (!file.delete()) {
+            throw new FileSystemException("Не удалось удалить временный файл '" + file.getAbsolutePath() + "'");
+        }
+    }
+}
@@ -9,6 +9,8 @@ class ManagersTest {
     void shouldReturnInitializedInstances() {
         assertNotNull(Managers.getDefault(),
                 "Класс Managers не возвращает проинициализированный объект типа TaskManager.");
+        assertNotNull(Managers.getConcurrent(),
+                "Класс Managers не возвращает проинициализированный потокобезопасный TaskManager.");
         assertNotNull(Managers.getDefaultHistory(),
                 "Класс Managers не возвращает проинициализированный объект типа HistoryManager.");
     }
@@ -0,0 +1,136 @@
+package tracker.controllers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tracker.exceptions.ManagerSaveException;
+import tracker.model.Task;
+import tracker.model.TaskStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SegmentedFileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
+    private static File file;
+
+    @BeforeEach
+    public void initializeTaskManager() {
+        try {
+            file = File.createTempFile("temp", ".txt");
+            taskManager = FileBackedTaskManager.loadFromFile(file, FileBackedTaskManager.SaveMode.SEGMENTED);
+        } catch (IOException e) {
+            System.out.println("Возникла ошибка при создании файла temp*.txt");
+        }
+    }
+
+    @Test
+    void shouldRewriteOnlyChangedPage() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            tasks.add(createTask(i));
+        }
+        taskManager.addAll(tasks);
+        byte[] before = Files.readAllBytes(file.toPath());
+
+        Task task = tasks.get(150);
+        task.setStatus("DONE");
+        taskManager.updateTask(task.getId(), task);
+        byte[] after = Files.readAllBytes(file.toPath());
+
+        assertEquals(before.length, after.length, "Файл перезаписан целиком.");
+        int pageSize = SegmentedSnapshot.pageSize(ByteBuffer.wrap(after));
+        int segment = SegmentedSnapshot.segmentOf(task.getId());
+        long pageStart = SegmentedSnapshot.offsetOf(segment, pageSize);
+        long pageEnd = SegmentedSnapshot.offsetOf(segment + 1, pageSize);
+        for (int i = 0; i < after.length; i++) {
+            if (i < pageStart || i >= pageEnd) {
+                assertEquals(before[i], after[i], "Изменён байт " + i + " вне страницы изменённой задачи.");
+            }
+        }
+        assertEquals(TaskStatus.DONE, FileBackedTaskManager.loadFromFile(file).getTasksMap()
+                .get(task.getId()).getStatus(), "Изменение задачи не записано на страницу.");
+    }
+
+    @Test
+    void shouldRewriteFileWhenPageOverflows() throws IOException {
+        Task task = createTask(1);
+        taskManager.addTask(task);
+        int pageSize = SegmentedSnapshot.pageSize(ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+
+        task.setDescription("Описание".repeat(pageSize));
+        taskManager.updateTask(task.getId(), task);
+
+        assertTrue(SegmentedSnapshot.pageSize(ByteBuffer.wrap(Files.readAllBytes(file.toPath()))) > pageSize,
+                "Размер страницы не увеличен.");
+        assertEquals(task.getDescription(), FileBackedTaskManager.loadFromFile(file).getTasksMap()
+                .get(task.getId()).getDescription(), "Задача, не поместившаяся на страницу, не записана.");
+    }
+
+    @Test
+    void shouldDetectDamagedPage() throws IOException {
+        taskManager.addTask(createTask(1));
+        byte[] content = Files.readAllBytes(file.toPath());
+        content[SegmentedSnapshot.HEADER_BYTES + 12] ^= 1;
+        Files.write(file.toPath(), content);
+
+        assertThrows(ManagerSaveException.class, () -> FileBackedTaskManager.loadFromFile(file),
+                "Повреждённая страница загружена без ошибки.");
+    }
+
+    @Test
+    void shouldRestoreTornPageFromPageLog() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            tasks.add(createTask(i));
+        }
+        taskManager.addAll(tasks);
+        Task task = tasks.get(150);
+        task.setStatus("DONE");
+        taskManager.updateTask(task.getId(), task);
+        assertFalse(TaskFileWriter.pageLogFile(file).exists(), "Журнал страниц не удалён после записи страниц.");
+
+        byte[] content = Files.readAllBytes(file.toPath());
+        int pageSize = SegmentedSnapshot.pageSize(ByteBuffer.wrap(content));
+        long pageStart = SegmentedSnapshot.offsetOf(SegmentedSnapshot.segmentOf(task.getId()), pageSize);
+        byte[] page = Arrays.copyOfRange(content, (int) pageStart, (int) pageStart + pageSize);
+        TaskFileWriter.appendPageLog(TaskFileWriter.pageLogFile(file), Map.of(pageStart, page), false);
+        Arrays.fill(content, (int) pageStart + pageSize / 2, (int) pageStart + pageSize, (byte) 0);
+        Files.write(file.toPath(), content);
+
+        assertEquals(TaskStatus.DONE, FileBackedTaskManager.loadFromFile(file).getTasksMap()
+                .get(task.getId()).getStatus(), "Оборванная страница не восстановлена из журнала страниц.");
+        assertFalse(TaskFileWriter.pageLogFile(file).exists(), "Журнал страниц не удалён после восстановления.");
+    }
+
+    @Test
+    void shouldNotReuseIdsOfDeletedTasksAfterReload() {
+        taskManager.addTask(createTask(1));
+        Task deleted = createTask(2);
+        taskManager.addTask(deleted);
+        taskManager.deleteTask(deleted.getId());
+
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file,
+                FileBackedTaskManager.SaveMode.SEGMENTED);
+        Task task = createTask(3);
+        restored.addTask(task);
+        assertTrue(task.getId() > deleted.getId(), "После загрузки повторно выдан ID удалённой задачи.");
+    }
+
+    @AfterEach
+    void deleteTempFile() throws IOException {
+        Files.deleteIfExists(taskManager.getHistoryFile().toPath());
+        Files.deleteIfExists(TaskFileWriter.pageLogFile(file).toPath());
+        if (!file.delete()) {
+            throw new FileSystemException("Не удалось удалить временный файл '" + file.getAbsolutePath() + "'");
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package tracker.controllers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tracker.model.Epic;
+import tracker.model.Subtask;
+import tracker.model.Task;
+import tracker.model.TaskStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedFileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
+    private static final int SHARDS = 4;
+    private static final FileBackedTaskManager.WriteOptions OPTIONS =
+            FileBackedTaskManager.WriteOptions.SYNCHRONOUS.withShards(SHARDS);
+    private static File file;
+
+    @BeforeEach
+    public void initializeTaskManager() {
+        try {
+            file = File.createTempFile("temp", ".txt");
+            taskManager = FileBackedTaskManager.loadFromFile(file, FileBackedTaskManager.SaveMode.SHARDED, OPTIONS);
+        } catch (IOException e) {
+            System.out.println("Возникла ошибка при создании файла temp*.txt");
+        }
+    }
+
+    @Test
+    void shouldRewriteOnlyChangedShard() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            tasks.add(createTask(i));
+        }
+        taskManager.addAll(tasks);
+        List<byte[]> before = readShards();
+
+        Task task = tasks.get(150);
+        task.setStatus("DONE");
+        taskManager.updateTask(task.getId(), task);
+        List<byte[]> after = readShards();
+
+        int changed = ShardedSnapshot.shardOf(task, SHARDS);
+        for (int i = 0; i < SHARDS; i++) {
+            if (i != changed) {
+                assertArrayEquals(before.get(i), after.get(i), "Перезаписан файл " + i + " без изменённых задач.");
+            }
+        }
+        assertEquals(TaskStatus.DONE, loadFromFile().getTasksMap().get(task.getId()).getStatus(),
+                "Изменение задачи не записано в файл.");
+    }
+
+    @Test
+    void shouldKeepSubtasksWithTheirEpic() throws IOException {
+        Epic epic = createEpic(1);
+        taskManager.addEpic(epic);
+        List<Task> items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            items.add(i % 2 == 0 ? createTask(i) : createSubtask(epic, i));
+        }
+        taskManager.addAll(items);
+
+        int shard = ShardedSnapshot.shardOf(epic, SHARDS);
+        String epicShard = Files.readString(ShardedSnapshot.shardFile(file, shard).toPath());
+        for (Subtask subtask : taskManager.getSubtasks()) {
+            assertTrue(epicShard.contains("\n" + subtask.getId() + ",SUBTASK,"),
+                    "Подзадача " + subtask.getId() + " записана не в файл своего эпика.");
+        }
+        FileBackedTaskManager loaded = loadFromFile();
+        assertEquals(100, loaded.getEpicSubtasks(epic.getId()).size(), "Подзадачи не привязаны к эпику.");
+        assertEquals(taskManager.getPrioritizedTasks(), loaded.getPrioritizedTasks(),
+                "Загруженная доска отличается от сохранённой.");
+    }
+
+    @Test
+    void shouldMoveSubtaskToShardOfItsNewEpic() throws IOException {
+        Epic epic = createEpic(1);
+        taskManager.addEpic(epic);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < ShardedSnapshot.SHARD_BLOCK_IDS; i++) {
+            tasks.add(createTask(i));
+        }
+        taskManager.addAll(tasks);
+        Epic otherEpic = createEpic(2);
+        taskManager.addEpic(otherEpic);
+        Subtask subtask = createSubtask(epic, 1);
+        taskManager.addSubtask(subtask);
+        int shard = ShardedSnapshot.shardOf(epic, SHARDS);
+        int otherShard = ShardedSnapshot.shardOf(otherEpic, SHARDS);
+        assertNotEquals(shard, otherShard, "Эпики попали в один файл.");
+
+        Subtask moved = createSubtask(otherEpic, 2);
+        taskManager.updateSubtask(subtask.getId(), moved);
+
+        String line = "\n" + subtask.getId() + ",SUBTASK,";
+        assertFalse(Files.readString(ShardedSnapshot.shardFile(file, shard).toPath()).contains(line),
+                "Подзадача осталась в файле прежнего эпика.");
+        assertTrue(Files.readString(ShardedSnapshot.shardFile(file, otherShard).toPath()).contains(line),
+                "Подзадача не записана в файл нового эпика.");
+        FileBackedTaskManager loaded = loadFromFile();
+        assertTrue(loaded.getEpicSubtasks(epic.getId()).isEmpty(), "Подзадача осталась у прежнего эпика.");
+        assertEquals(1, loaded.getEpicSubtasks(otherEpic.getId()).size(), "Подзадача не перешла к новому эпику.");
+    }
+
+    @Test
+    void shouldRewriteAllShardsWhenShardCountChanges() {
+        for (int i = 0; i < 300; i++) {
+            taskManager.addTask(createTask(i));
+        }
+        taskManager.close();
+
+        taskManager = FileBackedTaskManager.loadFromFile(file, FileBackedTaskManager.SaveMode.SHARDED,
+                OPTIONS.withShards(2));
+        taskManager.addTask(createTask(300));
+
+        assertTrue(ShardedSnapshot.shardFile(file, 1).exists(), "Файлы нового разбиения не записаны.");
+        assertFalse(ShardedSnapshot.shardFile(file, 2).exists(), "Файлы прежнего разбиения не удалены.");
+        assertEquals(301, loadFromFile().getTasks().size(), "После смены числа файлов потеряны задачи.");
+    }
+
+    @Test
+    void shouldNotReuseIdsOfDeletedTasksAfterReload() {
+        taskManager.addTask(createTask(1));
+        Task deleted = createTask(2);
+        taskManager.addTask(deleted);
+        taskManager.deleteTask(deleted.getId());
+        taskManager.close();
+
+        taskManager = loadFromFile();
+        Task task = createTask(3);
+        taskManager.addTask(task);
+        assertTrue(task.getId() > deleted.getId(), "После загрузки повторно выдан ID удалённой задачи.");
+    }
+
+    private FileBackedTaskManager loadFromFile() {
+        return FileBackedTaskManager.loadFromFile(file, FileBackedTaskManager.SaveMode.SHARDED, OPTIONS);
+    }
+
+    private List<byte[]> readShards() throws IOException {
+        List<byte[]> shards = new ArrayList<>();
+        for (int i = 0; i < SHARDS; i++) {
+            shards.add(Files.readAllBytes(ShardedSnapshot.shardFile(file, i).toPath()));
+        }
+        return shards;
+    }
+
+    @AfterEach
+    void deleteTempFiles() throws IOException {
+        taskManager.close();
+        for (int i = 0; i < SHARDS; i++) {
+            Files.deleteIfExists(ShardedSnapshot.shardFile(file, i).toPath());
+        }
+        Files.deleteIfExists(taskManager.getHistoryFile().toPath());
+        if (!file.delete()) {
+            throw new FileSystemException("Не удалось удалить временный файл '" + file.getAbsolutePath() + "'");
+        }
+    }
+}
@@ -3,12 +3,21 @@ package tracker.controllers;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import tracker.exceptions.NotFoundException;
 import tracker.exceptions.TasksIntersectionException;
 import tracker.model.Epic;
 import tracker.model.Subtask;
 import tracker.model.Task;
+import tracker.model.TaskStatus;
+import tracker.schedule.IntervalIndex;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -17,7 +26,7 @@ public abstract class TaskManagerTest<T extends TaskManager> {
     protected T taskManager;
 
     @BeforeEach
-    public abstract void initializeTaskManager();
+    public abstract void initializeTaskManager() throws IOException;
 
     protected Task createTask(int num) {
         return new Task("Test Task" + num, "Test Task" + num + " description");
@@ -94,4 +103,343 @@ public abstract class TaskManagerTest<T extends TaskManager> {
                         && taskManager.getPrioritizedTasks().getLast().getId() == task3.getId(),
                 "Удаление задач из отсортированного по времени списка работает некорректно.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldRepositionInPrioritizedTasksOnUpdate() {
+        LocalDateTime startTime = LocalDateTime.now();
+        Task task1 = new Task("Задача1", "Тестовая задача #1", startTime.format(Task.DATE_FORMATTER), 30);
+        Task task2 = new Task("Задача2", "Тестовая задача #2",
+                startTime.plusHours(1).format(Task.DATE_FORMATTER), 30);
+        taskManager.addTask(task1);
+        taskManager.addTask(task2);
+
+        taskManager.updateTask(task1.getId(), new Task("Задача1", "Тестовая задача #1", task1.getId(), "NEW",
+                startTime.plusHours(2).format(Task.DATE_FORMATTER), 30));
+
+        assertEquals(2, taskManager.getPrioritizedTasks().size(), "Обновлённая задача продублирована в списке.");
+        assertEquals(task2.getId(), taskManager.getPrioritizedTasks().getFirst().getId(),
+                "Обновлённая задача не перемещена в отсортированном по времени списке.");
+    }
+
+    @Test
+    void shouldRepositionTaskChangedInPlace() {
+        LocalDateTime startTime = LocalDateTime.now();
+        Task task1 = new Task("Задача1", "Тестовая задача #1", startTime.format(Task.DATE_FORMATTER), 30);
+        Task task2 = new Task("Задача2", "Тестовая задача #2",
+                startTime.plusHours(1).format(Task.DATE_FORMATTER), 30);
+        taskManager.addTask(task1);
+        taskManager.addTask(task2);
+
+        task1.setStartTime(startTime.plusHours(2).format(Task.DATE_FORMATTER));
+        taskManager.updateTask(task1.getId(), task1);
+        assertEquals(List.of(task2, task1), taskManager.getPrioritizedTasks(),
+                "Изменённая на месте задача не перемещена в отсортированном по времени списке.");
+
+        task1.setStartTime(startTime.plusHours(3).format(Task.DATE_FORMATTER));
+        taskManager.deleteTask(task1.getId());
+        assertEquals(List.of(task2), taskManager.getPrioritizedTasks(),
+                "Удалённая задача осталась в отсортированном по времени списке.");
+    }
+
+    @Test
+    void shouldRecalculateEpicForSubtaskChangedInPlace() {
+        LocalDateTime startTime = LocalDateTime.now();
+        Epic epic = createEpic(1);
+        taskManager.addEpic(epic);
+        Subtask subtask = new Subtask("Подзадача1", "Тестовая подзадача #1", epic.getId(),
+                startTime.format(Task.DATE_FORMATTER), 30);
+        taskManager.addSubtask(subtask);
+
+        subtask.setStatus("DONE");
+        subtask.setStartTime(startTime.plusHours(2).format(Task.DATE_FORMATTER));
+        taskManager.updateSubtask(subtask.getId(), subtask);
+        Epic updatedEpic = taskManager.getEpicByID(epic.getId());
+        assertEquals(TaskStatus.DONE, updatedEpic.getStatus(),
+                "Статус эпика не пересчитан после изменения подзадачи на месте.");
+        assertEquals(startTime.plusHours(2).format(Task.DATE_FORMATTER),
+                updatedEpic.getStartTime().get().format(Task.DATE_FORMATTER),
+                "Время начала эпика не пересчитано после изменения подзадачи на месте.");
+        assertEquals(subtask.getEndTime(), updatedEpic.getEndTime(),
+                "Время окончания эпика не пересчитано после изменения подзадачи на месте.");
+    }
+
+    @Test
+    void shouldRepositionEpicInPrioritizedTasksWhenSubtasksChange() {
+        LocalDateTime startTime = LocalDateTime.now();
+        Task task = new Task("Задача1", "Тестовая задача #1",
+                startTime.plusHours(1).format(Task.DATE_FORMATTER), 30);
+        taskManager.addTask(task);
+        Epic epic = createEpic(1);
+        taskManager.addEpic(epic);
+        assertEquals(1, taskManager.getPrioritizedTasks().size(), "Эпик без подзадач попал в список.");
+
+        Subtask subtask = new Subtask("Подзадача1", "Тестовая подзадача #1", epic.getId(),
+                startTime.format(Task.DATE_FORMATTER), 30);
+        taskManager.addSubtask(subtask);
+        assertEquals(epic.getId(), taskManager.getPrioritizedTasks().getFirst().getId(),
+                "Время эпика не учтено в отсортированном по времени списке.");
+
+        taskManager.deleteSubtask(subtask.getId());
+        assertEquals(List.of(task), taskManager.getPrioritizedTasks(),
+                "Эпик без подзадач остался в отсортированном по времени списке.");
+    }
+
+    @Test
+    void shouldRecalculateEpicsWhenSubtaskMovesToAnotherEpic() {
+        LocalDateTime startTime = LocalDateTime.now().withSecond(0).withNano(0);
+        Epic epic1 = createEpic(1);
+        Epic epic2 = createEpic(2);
+        taskManager.addEpic(epic1);
+        taskManager.addEpic(epic2);
+        Subtask subtask = new Subtask("Подзадача1", "Тестовая подзадача #1", epic1.getId(),
+                startTime.format(Task.DATE_FORMATTER), 30);
+        taskManager.addSubtask(subtask);
+
+        Subtask updated = new Subtask("Подзадача1", "Тестовая подзадача #1", epic2.getId(),
+                startTime.plusHours(1).format(Task.DATE_FORMATTER), 45);
+        updated.setStatus("DONE");
+        taskManager.updateSubtask(subtask.getId(), updated);
+
+        assertTrue(epic1.getSubtasks().isEmpty(), "Подзадача осталась в прежнем эпике.");
+        assertEquals(TaskStatus.NEW, epic1.getStatus(), "Статус прежнего эпика не пересчитан.");
+        assertTrue(epic1.getStartTime().isEmpty(), "Время прежнего эпика не пересчитано.");
+        assertEquals(TaskStatus.DONE, epic2.getStatus(), "Статус нового эпика не пересчитан.");
+        assertEquals(startTime.plusHours(1), epic2.getStartTime().get(), "Начало нового эпика не пересчитано.");
+        assertEquals(45, epic2.getDuration().get().toMinutes(), "Продолжительность нового эпика не пересчитана.");
+    }
+
+    @Test
+    void shouldAddBatchWithoutChangesOnIntersection() {
+        LocalDateTime startTime = LocalDateTime.now().withSecond(0).withNano(0);
+        Task task1 = new Task("Задача1", "Тестовая задача #1", startTime.format(Task.DATE_FORMATTER), 30);
+        Task task2 = new Task("Задача2", "Тестовая задача #2",
+                startTime.plusMinutes(15).format(Task.DATE_FORMATTER), 30);
+        assertThrows(TasksIntersectionException.class, () -> taskManager.addAll(List.of(task1, task2)),
+                "Пересечение внутри пакета не обнаружено.");
+        assertTrue(taskManager.getTasks().isEmpty(), "Часть пакета добавлена несмотря на пересечение.");
+        assertTrue(taskManager.getTaskIntervals().isEmpty(), "Интервалы пакета остались занятыми.");
+        assertEquals(0, task1.getId(), "ID задачи изменён несмотря на отказ в добавлении пакета.");
+
+        Epic epic = createEpic(1);
+        taskManager.addEpic(epic);
+        assertEquals(1, epic.getId(), "Отклонённый пакет израсходовал ID.");
+        Subtask subtask = new Subtask("Подзадача1", "Тестовая подзадача #1", epic.getId(),
+                startTime.plusHours(1).format(Task.DATE_FORMATTER), 45);
+        subtask.setStatus("DONE");
+        taskManager.addAll(List.of(createTask(3), subtask));
+        assertEquals(1, taskManager.getTasks().size(), "Задача из пакета не добавлена.");
+        assertEquals(subtask, taskManager.getEpicSubtasks(epic.getId()).get(subtask.getId()),
+                "Подзадача из пакета не добавлена в эпик.");
+        assertEquals(TaskStatus.DONE, epic.getStatus(), "Статус эпика не пересчитан после пакета.");
+        assertEquals(startTime.plusHours(1), epic.getStartTime().get(), "Время эпика не пересчитано после пакета.");
+    }
+
+    @Test
+    void shouldRejectBatchWithSubtaskOfMissingEpic() {
+        Task task = createTask(1);
+        Subtask subtask = new Subtask("Подзадача1", "Тестовая подзадача #1", 100);
+        assertThrows(NotFoundException.class, () -> taskManager.addAll(List.of(task, subtask)),
+                "Подзадача несуществующего эпика добавлена или пропущена без ошибки.");
+        assertTrue(taskManager.getTasks().isEmpty(), "Часть пакета добавлена несмотря на ошибку.");
+        assertEquals(0, task.getId(), "ID задачи изменён несмотря на отказ в добавлении пакета.");
+    }
+
+    @Test
+    void shouldAddTasksInFreeSlots() {
+        Task task1 = createTask(1);
+        task1.setDuration(30);
+        Task task2 = createTask(2);
+        task2.setDuration(30);
+        taskManager.addTaskInFreeSlot(task1);
+        taskManager.addTaskInFreeSlot(task2);
+
+        assertTrue(task1.getStartTime().isPresent(), "Задаче не назначено время начала.");
+        assertFalse(task2.getStartTime().get().isBefore(task1.getEndTime().get()),
+                "Задачам назначено пересекающееся время.");
+        assertEquals(2, taskManager.getTaskIntervals().size(), "Интервалы размещённых задач не заняты.");
+    }
+
+    @Test
+    void shouldSwapTasksTimeInBatchUpdate() {
+        LocalDateTime startTime = LocalDateTime.now().withSecond(0).withNano(0);
+        Task task1 = new Task("Задача1", "Тестовая задача #1", startTime.format(Task.DATE_FORMATTER), 30);
+        Task task2 = new Task("Задача2", "Тестовая задача #2",
+                startTime.plusHours(1).format(Task.DATE_FORMATTER), 30);
+        taskManager.addAll(List.of(task1, task2));
+
+        Task updated1 = new Task("Задача1", "Тестовая задача #1",
+                startTime.plusHours(1).format(Task.DATE_FORMATTER), 30);
+        Task updated2 = new Task("Задача2", "Тестовая задача #2", startTime.format(Task.DATE_FORMATTER), 30);
+        assertDoesNotThrow(() -> taskManager.updateAll(Map.of(task1.getId(), updated1, task2.getId(), updated2)),
+                "Задачи пакета пересекаются со своими прежними интервалами.");
+        assertEquals(List.of(updated2, updated1), taskManager.getPrioritizedTasks(),
+                "Задачи не поменялись местами в отсортированном по времени списке.");
+        assertThrows(NotFoundException.class, () -> taskManager.updateAll(Map.of(100, createTask(3))),
+                "Обновлена несуществующая задача.");
+    }
+
+    @Test
+    void shouldUpdateBatchWithoutChangesOnRejection() {
+        LocalDateTime startTime = LocalDateTime.now().withSecond(0).withNano(0);
+        Task task1 = new Task("Задача1", "Тестовая задача #1", startTime.format(Task.DATE_FORMATTER), 30);
+        Task task2 = new Task("Задача2", "Тестовая задача #2",
+                startTime.plusHours(1).format(Task.DATE_FORMATTER), 30);
+        taskManager.addAll(List.of(task1, task2));
+        List<IntervalIndex.Interval> intervals = taskManager.getTaskIntervals();
+
+        Task updated1 = new Task("Задача1", "Тестовая задача #1",
+                startTime.plusHours(2).format(Task.DATE_FORMATTER), 30);
+        Task updated2 = new Task("Задача2", "Тестовая задача #2",
+                startTime.plusHours(2).plusMinutes(15).format(Task.DATE_FORMATTER), 30);
+        Map<Integer, Task> intersecting = new LinkedHashMap<>();
+        intersecting.put(task1.getId(), updated1);
+        intersecting.put(task2.getId(), updated2);
+        assertThrows(TasksIntersectionException.class, () -> taskManager.updateAll(intersecting),
+                "Пересечение внутри пакета не обнаружено.");
+        assertEquals(0, updated1.getId(), "ID задачи изменён несмотря на отказ в обновлении пакета.");
+        assertEquals(0, updated2.getId(), "ID задачи изменён несмотря на отказ в обновлении пакета.");
+        assertEquals(intervals, taskManager.getTaskIntervals(), "Интервалы задач изменены несмотря на отказ.");
+        assertEquals(List.of(task1, task2), taskManager.getPrioritizedTasks(), "Порядок задач изменён.");
+
+        Map<Integer, Task> missing = new LinkedHashMap<>();
+        missing.put(task1.getId(), updated1);
+        missing.put(100, createTask(3));
+        assertThrows(NotFoundException.class, () -> taskManager.updateAll(missing),
+                "Обновлена несуществующая задача.");
+        assertEquals(0, updated1.getId(), "ID задачи изменён несмотря на отказ в обновлении пакета.");
+        assertEquals(startTime, taskManager.getTaskByID(task1.getId()).getStartTime().get(),
+                "Задача изменена несмотря на отказ в обновлении пакета.");
+    }
+
+    @Test
+    void shouldDeleteBatchAndRecalculateEpic() {
+        Epic epic = createEpic(1);
+        taskManager.addEpic(epic);
+        Task task = createTask(1);
+        Subtask subtask1 = createSubtask(epic, 1);
+        Subtask subtask2 = createSubtask(epic, 2);
+        subtask2.setStatus("DONE");
+        taskManager.addAll(List.of(task, subtask1, subtask2));
+        assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus());
+
+        assertThrows(NotFoundException.class, () -> taskManager.deleteAll(List.of(task.getId(), 100)),
+                "Удалена несуществующая задача.");
+        assertEquals(1, taskManager.getTasks().size(), "Часть пакета удалена несмотря на ошибку.");
+
+        taskManager.deleteAll(List.of(task.getId(), subtask1.getId()));
+        assertTrue(taskManager.getTasks().isEmpty(), "Задача из пакета не удалена.");
+        assertEquals(List.of(subtask2), taskManager.getSubtasks(), "Подзадача из пакета не удалена.");
+        assertEquals(TaskStatus.DONE, epic.getStatus(), "Статус эпика не пересчитан после удаления пакета.");
+    }
+
+    @Test
+    void shouldReturnPrioritizedTasksInTimeRange() {
+        LocalDateTime startTime = LocalDateTime.now().withSecond(0).withNano(0);
+        Task task1 = new Task("Задача1", "Тестовая задача #1", startTime.format(Task.DATE_FORMATTER), 30);
+        Task task2 = new Task("Задача2", "Тестовая задача #2",
+                startTime.plusHours(1).format(Task.DATE_FORMATTER), 30);
+        Task task3 = new Task("Задача3", "Тестовая задача #3",
+                startTime.plusHours(2).format(Task.DATE_FORMATTER), 30);
+        taskManager.addAll(List.of(task1, task2, task3));
+
+        assertEquals(List.of(task2, task3), taskManager.getPrioritizedTasks(startTime.plusHours(1), null, 0),
+                "Нижняя граница диапазона должна включаться.");
+        assertEquals(List.of(task1), taskManager.getPrioritizedTasks(null, startTime.plusHours(1), 0),
+                "Верхняя граница диапазона не должна включаться.");
+        assertEquals(List.of(task1, task2), taskManager.getPrioritizedTasks(startTime, startTime.plusHours(3), 2),
+                "Количество задач в диапазоне не ограничено параметром limit.");
+        assertEquals(taskManager.getPrioritizedTasks(), taskManager.getPrioritizedTasks(null, null, 0));
+        assertTrue(taskManager.getPrioritizedTasks(startTime.plusHours(2), startTime, 0).isEmpty(),
+                "Диапазон с верхней границей раньше нижней не пуст.");
+    }
+
+    @Test
+    void shouldFindFreeSlotBetweenTasks() {
+        LocalDateTime startTime = LocalDateTime.now().withSecond(0).withNano(0).plusMinutes(1);
+        taskManager.addAll(List.of(
+                new Task("Задача1", "Тестовая задача #1", startTime.format(Task.DATE_FORMATTER), 30),
+                new Task("Задача2", "Тестовая задача #2", startTime.plusMinutes(45).format(Task.DATE_FORMATTER), 30)));
+
+        LocalDateTime slot = taskManager.findFreeSlot(Duration.ofMinutes(15), startTime).orElseThrow();
+        assertEquals(startTime.plusMinutes(30), slot, "Свободный промежуток между задачами не найден.");
+        assertDoesNotThrow(() -> taskManager.addTask(new Task("Задача3", "Тестовая задача #3",
+                slot.format(Task.DATE_FORMATTER), 15)), "Найденное время пересекается с другими задачами.");
+        assertEquals(startTime.plusMinutes(75), taskManager.findFreeSlot(Duration.ofMinutes(15), startTime)
+                .orElseThrow(), "Занятый промежуток предложен повторно.");
+        assertTrue(taskManager.findFreeSlot(Duration.ofDays(800), startTime).isEmpty(),
+                "Найдено время за границей горизонта планирования.");
+    }
+
+    @Test
+    void shouldCheckIntersectionsExactToMinute() {
+        LocalDateTime grid = LocalDateTime.now().withMinute(0).withSecond(0).withNano(0).plusHours(1);
+        taskManager.addTask(new Task("Задача1", "Тестовая задача #1",
+                grid.plusMinutes(5).format(Task.DATE_FORMATTER), 10));
+
+        assertDoesNotThrow(() -> taskManager.addTask(new Task("Задача2", "Тестовая задача #2",
+                grid.format(Task.DATE_FORMATTER), 5)), "Задача, закончившаяся до начала другой, считается пересечением.");
+        assertDoesNotThrow(() -> taskManager.addTask(new Task("Задача3", "Тестовая задача #3",
+                grid.plusMinutes(15).format(Task.DATE_FORMATTER), 15)), "Задача, начавшаяся после окончания другой, "
+                + "считается пересечением.");
+        assertThrows(TasksIntersectionException.class, () -> taskManager.addTask(new Task("Задача4",
+                "Тестовая задача #4", grid.plusMinutes(14).format(Task.DATE_FORMATTER), 1)),
+                "Пересечение на одну минуту не обнаружено.");
+    }
+
+    @Test
+    void shouldReturnEpicSubtasksInIdOrder() {
+        Epic epic = createEpic(1);
+        taskManager.addEpic(epic);
+        List<Subtask> subtasks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            subtasks.add(createSubtask(epic, i));
+        }
+        taskManager.addAll(subtasks);
+        Map<Integer, Subtask> epicSubtasks = taskManager.getEpicSubtasks(epic.getId());
+
+        assertEquals(subtasks.stream().map(Subtask::getId).toList(), List.copyOf(epicSubtasks.keySet()),
+                "Подзадачи эпика выданы не в порядке ID.");
+        taskManager.addSubtask(createSubtask(epic, 50));
+        assertEquals(50, epicSubtasks.size(), "Выданная таблица подзадач эпика изменилась вместе с эпиком.");
+    }
+
+    @Test
+    void shouldReturnReadOnlySnapshotsUntilNextChange() {
+        Task task1 = createTask(1);
+        taskManager.addTask(task1);
+        List<Task> tasks = taskManager.getTasks();
+
+        assertThrows(UnsupportedOperationException.class, () -> tasks.add(createTask(2)),
+                "Список задач можно изменить в обход Менеджера задач.");
+        assertThrows(UnsupportedOperationException.class, () -> taskManager.getTasksMap().remove(task1.getId()),
+                "Таблицу задач можно изменить в обход Менеджера задач.");
+
+        Task task2 = createTask(2);
+        taskManager.addTask(task2);
+        assertEquals(List.of(task1), tasks, "Выданный ранее список задач изменился.");
+        assertEquals(List.of(task1, task2), taskManager.getTasks(), "Список задач не обновился после изменения.");
+    }
+
+    @Test
+    void shouldDeleteWhileIteratingReturnedMaps() {
+        Epic epic = createEpic(1);
+        taskManager.addEpic(epic);
+        for (int i = 1; i <= 5; i++) {
+            taskManager.addTask(createTask(i));
+            taskManager.addSubtask(createSubtask(epic, i));
+        }
+        for (int id : taskManager.getTasksMap().keySet()) {
+            taskManager.deleteTask(id);
+        }
+        for (int id : taskManager.getSubtasksMap().keySet()) {
+            taskManager.deleteSubtask(id);
+        }
+        for (int id : taskManager.getEpicsMap().keySet()) {
+            taskManager.deleteEpic(id);
+        }
+
+        assertTrue(taskManager.getTasksMap().isEmpty(), "Не все задачи удалены при переборе таблицы.");
+        assertTrue(taskManager.getSubtasksMap().isEmpty(), "Не все подзадачи удалены при переборе таблицы.");
+        assertTrue(taskManager.getEpicsMap().isEmpty(), "Не все эпики удалены при переборе таблицы.");
+    }
+}
@@ -0,0 +1,114 @@
+package tracker.controllers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tracker.exceptions.ManagerSaveException;
+import tracker.model.Epic;
+import tracker.model.Subtask;
+import tracker.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindFileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
+    private static File file;
+
+    @BeforeEach
+    public void initializeTaskManager() {
+        try {
+            file = File.createTempFile("temp", ".txt");
+            taskManager = FileBackedTaskManager.loadFromFile(file, FileBackedTaskManager.SaveMode.JOURNAL,
+                    FileBackedTaskManager.WriteOptions.writeBehind(FileBackedTaskManager.SyncPolicy.INTERVAL,
+                            Duration.ofMillis(10)));
+        } catch (IOException e) {
+            System.out.println("Возникла ошибка при создании файла temp*.txt");
+        }
+    }
+
+    @Test
+    void shouldWriteAllChangesOnFlush() {
+        Epic epic = createEpic(1);
+        taskManager.addEpic(epic);
+        Subtask subtask = createSubtask(epic, 1);
+        taskManager.addSubtask(subtask);
+        for (int i = 0; i < 100; i++) {
+            taskManager.addTask(createTask(i));
+        }
+        taskManager.deleteSubtask(subtask.getId());
+
+        taskManager.flush();
+        assertEquals(0, taskManager.getWriteQueueDepth(), "После flush() в очереди остались изменения.");
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(100, restored.getTasks().size(), "Не все задачи записаны после flush().");
+        assertTrue(restored.getEpicSubtasks(epic.getId()).isEmpty(), "Удаление подзадачи не записано.");
+        assertFalse(taskManager.getLastFlushLatency().isNegative());
+    }
+
+    @Test
+    void shouldWriteLatestSnapshotOnClose() throws IOException {
+        FileBackedTaskManager snapshotManager = new FileBackedTaskManager(file,
+                InMemoryTaskManager.DEFAULT_PLANNING_HORIZON, Clock.systemDefaultZone(),
+                FileBackedTaskManager.SaveMode.SNAPSHOT,
+                FileBackedTaskManager.WriteOptions.writeBehind(FileBackedTaskManager.SyncPolicy.EVERY_WRITE,
+                        Duration.ZERO));
+        Task task = createTask(1);
+        snapshotManager.addTask(task);
+        for (int i = 0; i < 50; i++) {
+            task.setName("Задача" + i);
+            snapshotManager.updateTask(task.getId(), task);
+        }
+        snapshotManager.close();
+
+        List<String> lines = Files.readAllLines(file.toPath());
+        assertEquals(2, lines.size(), "Файл содержит лишние строки.");
+        assertEquals("Задача49", FileBackedTaskManager.loadFromFile(file).getTasks().getFirst().getName(),
+                "В файл записан не последний снимок.");
+    }
+
+    @Test
+    void shouldKeepOnlyLatestPendingSnapshot() throws IOException {
+        File journalFile = new File(file.getPath() + ".writer-journal");
+        TaskFileWriter writer = new TaskFileWriter(file, journalFile,
+                FileBackedTaskManager.WriteOptions.writeBehind(FileBackedTaskManager.SyncPolicy.NEVER, Duration.ZERO));
+        byte[] snapshot = new byte[10_000];
+        // Пока монитор писателя занят, фоновый поток не может записать ни одного задания
+        synchronized (writer) {
+            for (int i = 0; i < 100; i++) {
+                snapshot[0] = (byte) i;
+                writer.submit(TaskFileWriter.WriteJob.snapshot(snapshot.clone()));
+            }
+            assertTrue(writer.getPendingBytes() <= snapshot.length, "В очереди накапливаются прежние снимки.");
+        }
+        writer.close();
+
+        assertArrayEquals(snapshot, Files.readAllBytes(file.toPath()), "В файл записан не последний снимок.");
+        Files.deleteIfExists(journalFile.toPath());
+    }
+
+    @Test
+    void shouldRejectChangesAfterClose() {
+        taskManager.addTask(createTask(1));
+        taskManager.close();
+
+        assertThrows(ManagerSaveException.class, () -> taskManager.addTask(createTask(2)),
+                "Изменение после закрытия менеджера молча потеряно.");
+    }
+
+    @AfterEach
+    void deleteTempFile() throws IOException {
+        taskManager.close();
+        Files.deleteIfExists(taskManager.getJournalFile().toPath());
+        Files.deleteIfExists(taskManager.getHistoryFile().toPath());
+        if (!file.delete()) {
+            throw new FileSystemException("Не удалось удалить временный файл '" + file.getAbsolutePath() + "'");
+        }
+    }
+}
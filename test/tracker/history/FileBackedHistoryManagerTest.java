@@ -0,0 +1,120 @@
+package tracker.history;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tracker.exceptions.ManagerSaveException;
+import tracker.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileBackedHistoryManagerTest {
+    private final Map<Integer, Task> tasks = new HashMap<>();
+    private File file;
+    private FileBackedHistoryManager historyManager;
+
+    @BeforeEach
+    void initializeHistoryManager() throws IOException {
+        file = File.createTempFile("temp", ".history");
+        Files.delete(file.toPath());
+        for (int id = 1; id <= 3; id++) {
+            tasks.put(id, new Task("Test Task" + id, "Test Task" + id + " description", id));
+        }
+        historyManager = open();
+    }
+
+    private FileBackedHistoryManager open() {
+        FileBackedHistoryManager manager = new FileBackedHistoryManager(file);
+        manager.setTaskResolver(tasks::get);
+        return manager;
+    }
+
+    @Test
+    void shouldRestoreHistoryAfterReopen() {
+        historyManager.add(tasks.get(1));
+        historyManager.add(tasks.get(2));
+        historyManager.add(tasks.get(3));
+        historyManager.add(tasks.get(1));
+        historyManager.remove(3);
+        historyManager.close();
+
+        historyManager = open();
+        assertEquals(List.of(tasks.get(2), tasks.get(1)), historyManager.getHistory(),
+                "История просмотров не восстановлена.");
+    }
+
+    @Test
+    void shouldDropTasksMissingFromBoard() {
+        historyManager.add(tasks.get(1));
+        historyManager.add(tasks.get(2));
+        historyManager.close();
+        tasks.remove(1);
+
+        historyManager = open();
+        assertEquals(List.of(tasks.get(2)), historyManager.getHistory(), "В истории осталась удалённая задача.");
+    }
+
+    @Test
+    void shouldCompactHistoryLog() throws IOException {
+        for (int i = 0; i < 5000; i++) {
+            historyManager.add(tasks.get(1));
+        }
+        historyManager.close();
+
+        assertTrue(Files.readAllLines(file.toPath()).size() <= 1000, "Журнал истории не сжимается.");
+        historyManager = open();
+        assertEquals(List.of(tasks.get(1)), historyManager.getHistory(), "История после сжатия журнала отличается.");
+    }
+
+    @Test
+    void shouldReadHistoryLogOnFirstAccess() throws IOException {
+        Files.writeString(file.toPath(), "повреждённая запись\n");
+
+        historyManager = open();
+        assertThrows(ManagerSaveException.class, () -> historyManager.getHistory(),
+                "Повреждённый журнал истории не обнаружен при обращении к истории.");
+    }
+
+    @Test
+    void shouldTruncateTornRecordBeforeAppend() throws IOException {
+        Files.writeString(file.toPath(), "1\n2");
+
+        historyManager = open();
+        historyManager.add(tasks.get(3));
+        historyManager.close();
+
+        assertEquals(List.of("1", "3"), Files.readAllLines(file.toPath()),
+                "Новая запись склеилась с оборванной строкой журнала.");
+        historyManager = open();
+        assertEquals(List.of(tasks.get(1), tasks.get(3)), historyManager.getHistory(),
+                "История после оборванной записи восстановлена неверно.");
+    }
+
+    @Test
+    void shouldWriteRecordsInBatches() throws IOException {
+        historyManager.add(tasks.get(1));
+        assertEquals(0, file.length(), "Запись о просмотре сброшена в файл сразу.");
+
+        historyManager.flush();
+        assertEquals(List.of("1"), Files.readAllLines(file.toPath()), "Записи не сброшены в файл в flush().");
+
+        for (int i = 0; i < FileBackedHistoryManager.BATCH_RECORDS; i++) {
+            historyManager.add(tasks.get(1 + i % 2));
+        }
+        assertEquals(1 + FileBackedHistoryManager.BATCH_RECORDS, Files.readAllLines(file.toPath()).size(),
+                "Полная пачка записей не сброшена в файл.");
+    }
+
+    @AfterEach
+    void deleteTempFiles() throws IOException {
+        historyManager.close();
+        Files.deleteIfExists(file.toPath());
+    }
+}
@@ -162,4 +162,21 @@ class EpicTest {
         assertEquals("IN_PROGRESS", epic.getStatus().name(),
                 "Некорректный статус у Эпика, у которого она одна или несколько задач обновили статус.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldKeepCopyAndEpicIndependentAfterChanges() {
+        Epic epic = new Epic("Epic", "Epic Description", 1, "NEW");
+        epic.updateSubtask(new Subtask("Subtask1", "Subtask1 Description", 1, 2, "DONE"));
+        Epic copy = new Epic(epic);
+
+        epic.updateSubtask(new Subtask("Subtask2", "Subtask2 Description", 1, 3, "NEW"));
+        epic.updateStatus();
+        copy.deleteSubtask(2);
+        copy.updateStatus();
+
+        assertEquals(List.of(2, 3), epic.getSubtaskIds(), "Изменение копии затронуло подзадачи эпика.");
+        assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus(), "Неверный статус эпика после изменения копии.");
+        assertTrue(copy.getSubtasks().isEmpty(), "Изменение эпика затронуло подзадачи копии.");
+        assertEquals(TaskStatus.NEW, copy.getStatus(), "Неверный статус копии после изменения эпика.");
+    }
+}
@@ -0,0 +1,195 @@
+package tracker.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalIndexTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 4, 14, 12, 0);
+    private final IntervalIndex intervalIndex = new IntervalIndex();
+
+    @Test
+    void shouldFindIntersectionExactToMinute() {
+        intervalIndex.add(1, START, START.plusMinutes(10));
+        intervalIndex.add(2, START.plusMinutes(20), START.plusMinutes(30));
+
+        assertTrue(intervalIndex.findIntersection(START.plusMinutes(10), START.plusMinutes(20), 0).isEmpty(),
+                "Смежные интервалы считаются пересекающимися.");
+        assertEquals(1, intervalIndex.findIntersection(START.plusMinutes(9), START.plusMinutes(11), 0)
+                .orElseThrow().taskId(), "Пересечение на одну минуту не найдено.");
+        assertEquals(2, intervalIndex.findIntersection(START.minusHours(1), START.plusHours(1), 1)
+                .orElseThrow().taskId(), "Пересечение с другой задачей не найдено.");
+    }
+
+    @Test
+    void shouldIgnoreOwnInterval() {
+        intervalIndex.add(1, START, START.plusMinutes(10));
+        intervalIndex.add(2, START.plusMinutes(10), START.plusMinutes(20));
+
+        assertTrue(intervalIndex.findIntersection(START.plusMinutes(5), START.plusMinutes(10), 1).isEmpty(),
+                "Интервал самой задачи считается пересечением.");
+        assertEquals(2, intervalIndex.findIntersection(START.plusMinutes(5), START.plusMinutes(15), 1)
+                .orElseThrow().taskId(), "Пересечение за интервалом самой задачи не найдено.");
+    }
+
+    @Test
+    void shouldReleaseTaskInterval() {
+        intervalIndex.add(1, START, START.plusDays(7));
+        intervalIndex.remove(1);
+
+        assertTrue(intervalIndex.isEmpty(), "Интервал задачи не освобождён.");
+        assertTrue(intervalIndex.findIntersection(START, START.plusDays(7), 0).isEmpty(),
+                "Освобождённый интервал всё ещё занят.");
+    }
+
+    @Test
+    void shouldReleaseOnlyOwnInterval() {
+        intervalIndex.add(1, START, START.plusMinutes(10));
+        intervalIndex.add(2, START.plusMinutes(10), START.plusMinutes(20));
+        intervalIndex.add(1, START.plusHours(1), START.plusHours(2));
+        intervalIndex.remove(1);
+
+        assertEquals(1, intervalIndex.size(), "Освобождены интервалы другой задачи.");
+        assertTrue(intervalIndex.get(1).isEmpty(), "Интервал задачи не освобождён.");
+        assertEquals(START.plusMinutes(10), intervalIndex.get(2).orElseThrow().start(),
+                "Интервал другой задачи изменён.");
+    }
+
+    @Test
+    void shouldFindIntersectionWithIntervalStartedOnPreviousDays() {
+        intervalIndex.add(1, START.minusDays(3), START.plusDays(4));
+        intervalIndex.add(2, START.plusDays(10), START.plusDays(10).plusMinutes(15));
+
+        assertEquals(1, intervalIndex.findIntersection(START.plusDays(2), START.plusDays(2).plusMinutes(1), 0)
+                .orElseThrow().taskId(), "Не найдено пересечение с многодневной задачей.");
+        assertTrue(intervalIndex.findIntersection(START.plusDays(4), START.plusDays(10), 0).isEmpty(),
+                "Найдено пересечение в свободном промежутке между днями.");
+        assertEquals(2, intervalIndex.getIntervals().size(), "Неверное количество интервалов.");
+    }
+
+    @Test
+    void shouldFindFirstGapLongEnough() {
+        intervalIndex.add(1, START, START.plusMinutes(30));
+        intervalIndex.add(2, START.plusMinutes(40), START.plusMinutes(60));
+        intervalIndex.add(3, START.plusMinutes(60), START.plusDays(1).plusMinutes(10));
+        LocalDateTime limit = START.plusYears(1);
+
+        assertEquals(START.plusMinutes(30), intervalIndex.findFreeSlot(Duration.ofMinutes(10),
+                START.plusMinutes(15), limit).orElseThrow(), "Не найден промежуток сразу после занятого интервала.");
+        assertEquals(START.plusDays(1).plusMinutes(10), intervalIndex.findFreeSlot(Duration.ofMinutes(15),
+                START.plusMinutes(15), limit).orElseThrow(), "Найден слишком короткий промежуток.");
+        assertEquals(START.minusHours(1), intervalIndex.findFreeSlot(Duration.ofMinutes(60),
+                START.minusHours(1), limit).orElseThrow(), "Не найден промежуток до первого интервала.");
+        assertTrue(intervalIndex.findFreeSlot(Duration.ofMinutes(60), START, START.plusHours(2)).isEmpty(),
+                "Найден промежуток за границей планирования.");
+    }
+
+    @Test
+    void shouldHandleOverlappingIntervalsWithSameStart() {
+        intervalIndex.add(1, START, START.plusMinutes(60));
+        intervalIndex.add(2, START, START.plusMinutes(30));
+        intervalIndex.add(3, START.plusMinutes(45), START.plusMinutes(75));
+
+        assertEquals(1, intervalIndex.findIntersection(START.plusMinutes(35), START.plusMinutes(40), 0)
+                .orElseThrow().taskId(), "Не найдено пересечение с интервалом, перекрытым более поздним началом.");
+        assertEquals(START.plusMinutes(75), intervalIndex.findFreeSlot(Duration.ofMinutes(10),
+                START.plusMinutes(35), START.plusYears(1)).orElseThrow(), "Найден промежуток внутри занятого времени.");
+        intervalIndex.remove(2);
+        assertEquals(START.plusMinutes(60), intervalIndex.get(1).orElseThrow().end(),
+                "Удалён интервал другой задачи с тем же началом.");
+        assertTrue(intervalIndex.get(2).isEmpty(), "Интервал задачи не освобождён.");
+    }
+
+    @Test
+    void shouldShrinkLookbackAfterLongIntervalRemoved() {
+        intervalIndex.add(1, START.minusYears(1), START.minusYears(1).plusDays(300));
+        intervalIndex.add(2, START.minusYears(1).plusDays(1), START.minusYears(1).plusDays(301));
+        for (int i = 0; i < 100; i++) {
+            intervalIndex.add(10 + i, START.plusHours(i), START.plusHours(i).plusMinutes(30));
+        }
+
+        intervalIndex.remove(1);
+        assertEquals(300 * 24 * 60, intervalIndex.lookbackMinutes(),
+                "Граница просмотра уменьшилась, хотя интервал той же длины остался.");
+        assertEquals(2, intervalIndex.findIntersection(START.minusYears(1).plusDays(200),
+                START.minusYears(1).plusDays(201), 0).orElseThrow().taskId(),
+                "Не найдено пересечение с оставшимся длинным интервалом.");
+        intervalIndex.remove(2);
+        assertEquals(30, intervalIndex.lookbackMinutes(), "Граница просмотра не уменьшилась после удаления.");
+        assertEquals(10, intervalIndex.findIntersection(START.plusMinutes(29), START.plusMinutes(31), 0)
+                .orElseThrow().taskId(), "Не найдено пересечение с коротким интервалом.");
+        assertEquals(START.plusMinutes(30), intervalIndex.findFreeSlot(Duration.ofMinutes(30),
+                START.plusMinutes(10), START.plusYears(1)).orElseThrow(), "Неверный свободный промежуток.");
+    }
+
+    @Test
+    void shouldSkipDaysWithoutReachingIntervals() {
+        intervalIndex.add(1, START.minusDays(10), START.minusDays(3));
+        for (int day = 9; day > 0; day--) {
+            intervalIndex.add(100 + day, START.minusDays(day), START.minusDays(day).plusMinutes(30));
+        }
+
+        assertEquals(1, intervalIndex.findIntersection(START.minusDays(4).plusHours(2),
+                START.minusDays(4).plusHours(3), 0).orElseThrow().taskId(),
+                "Не найдено пересечение с интервалом, начавшимся несколькими днями раньше.");
+        assertTrue(intervalIndex.findIntersection(START.minusDays(2).plusHours(2),
+                START.minusDays(2).plusHours(3), 0).isEmpty(), "Найдено пересечение со свободным временем.");
+        assertEquals(START.minusDays(3).plusMinutes(30), intervalIndex.findFreeSlot(Duration.ofHours(1),
+                START.minusDays(5), START).orElseThrow(), "Свободный промежуток найден внутри длинного интервала.");
+    }
+
+    @Test
+    void shouldCheckOnlyNearestIntervalsWithoutOverlaps() {
+        intervalIndex.add(1, START.minusDays(300), START.minusDays(1));
+        for (int i = 0; i < 100; i++) {
+            intervalIndex.add(10 + i, START.plusHours(i), START.plusHours(i).plusMinutes(30));
+        }
+
+        assertFalse(intervalIndex.isOverlapping(), "Непересекающиеся интервалы просматриваются назад.");
+        assertEquals(1, intervalIndex.findIntersection(START.minusDays(2), START.plusMinutes(10), 10)
+                .orElseThrow().taskId(), "Не найдено пересечение перед интервалом самой задачи.");
+        assertTrue(intervalIndex.findIntersection(START.plusMinutes(30), START.plusMinutes(60), 0).isEmpty(),
+                "Найдено пересечение со свободным временем.");
+        assertEquals(START.plusHours(99).plusMinutes(30), intervalIndex.findFreeSlot(Duration.ofHours(1),
+                START.minusMinutes(10), START.plusYears(1)).orElseThrow(), "Неверный свободный промежуток.");
+    }
+
+    @Test
+    void shouldStopLookingBackWhenOverlapsAreRemoved() {
+        intervalIndex.add(1, START, START.plusMinutes(60));
+        intervalIndex.add(2, START.plusMinutes(30), START.plusMinutes(90));
+        intervalIndex.add(3, START.plusHours(2), START.plusHours(3));
+        assertTrue(intervalIndex.isOverlapping(), "Пересекающиеся интервалы не обнаружены.");
+
+        intervalIndex.remove(2);
+        intervalIndex.add(4, START.plusHours(4), START.plusHours(5));
+        assertTrue(intervalIndex.isOverlapping(), "Индекс проверен заново раньше, чем через size удалений.");
+        intervalIndex.remove(4);
+        assertFalse(intervalIndex.isOverlapping(), "Пересечения не сняты после удаления пересекавшегося интервала.");
+        assertEquals(1, intervalIndex.findIntersection(START.plusMinutes(50), START.plusMinutes(70), 0)
+                .orElseThrow().taskId(), "Не найдено пересечение после возврата к проверке соседей.");
+    }
+
+    @Test
+    void shouldSkipFullyBookedDays() {
+        int taskId = 1;
+        for (int day = 0; day < 10; day++) {
+            LocalDateTime dayStart = START.plusDays(day);
+            for (int hour = 0; hour < 24; hour++) {
+                LocalDateTime start = dayStart.plusHours(hour).plusMinutes(day == 5 && hour == 12 ? 30 : 0);
+                intervalIndex.add(taskId++, start, dayStart.plusHours(hour + 1));
+            }
+        }
+        LocalDateTime limit = START.plusYears(1);
+
+        assertEquals(START.plusDays(5).plusHours(12), intervalIndex.findFreeSlot(Duration.ofMinutes(30),
+                START, limit).orElseThrow(), "Не найден промежуток внутри занятого дня.");
+        assertEquals(START.plusDays(10), intervalIndex.findFreeSlot(Duration.ofMinutes(45),
+                START, limit).orElseThrow(), "Найден промежуток короче запрошенного.");
+        assertEquals(START.plusDays(10), intervalIndex.findFreeSlot(Duration.ofMinutes(30),
+                START.plusDays(5).plusHours(13), limit).orElseThrow(), "Промежуток найден раньше notBefore.");
+    }
+}
@@ -41,7 +41,6 @@ public class HttpTaskManagerEpicsTest {
         manager.clearTasks();
         manager.clearSubtasks();
         manager.clearEpics();
-        Task.resetIdentificator();
         taskServer.start();
     }
 
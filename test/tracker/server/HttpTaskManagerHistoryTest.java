@@ -41,7 +41,6 @@ public class HttpTaskManagerHistoryTest {
         manager.clearTasks();
         manager.clearSubtasks();
         manager.clearEpics();
-        Task.resetIdentificator();
         taskServer.start();
     }
 
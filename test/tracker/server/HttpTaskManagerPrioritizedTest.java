@@ -12,9 +12,11 @@ import tracker.model.Task;
 
 import java.io.IOException;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -40,7 +42,6 @@ public class HttpTaskManagerPrioritizedTest {
         manager.clearTasks();
         manager.clearSubtasks();
         manager.clearEpics();
-        Task.resetIdentificator();
         taskServer.start();
     }
 
@@ -119,4 +120,45 @@ public class HttpTaskManagerPrioritizedTest {
                         && manager.getPrioritizedTasks().size() == 3,
                 "Запрос GET /prioritized возвращает некорректный ответ");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetPrioritizedTasksInRange() throws IOException, InterruptedException {
+        LocalDateTime startTime = LocalDateTime.now().withSecond(0).withNano(0);
+        Task task1 = new Task("Test task 1", "Testing task1", startTime.format(Task.DATE_FORMATTER), 5);
+        Task task2 = new Task("Test task 2", "Testing task2",
+                startTime.plusHours(1).format(Task.DATE_FORMATTER), 5);
+        Task task3 = new Task("Test task 3", "Testing task3",
+                startTime.plusHours(2).format(Task.DATE_FORMATTER), 5);
+        manager.addTask(task1);
+        manager.addTask(task2);
+        manager.addTask(task3);
+
+        String from = URLEncoder.encode(startTime.plusHours(1).format(Task.DATE_FORMATTER), StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url + "?from=" + from + "&limit=1"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        JsonElement jsonElement = JsonParser.parseString(response.body());
+        assertTrue(jsonElement.isJsonArray() && jsonElement.getAsJsonArray().size() == 1
+                        && jsonElement.getAsJsonArray().get(0).getAsJsonObject().get("id").getAsInt() == task2.getId(),
+                "Запрос GET /prioritized?from=&limit= возвращает некорректный ответ");
+
+        request = HttpRequest.newBuilder()
+                .uri(URI.create(url + "?from=yesterday"))
+                .GET()
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode(), "Некорректная дата в запросе не отклонена.");
+
+        String to = URLEncoder.encode(startTime.format(Task.DATE_FORMATTER), StandardCharsets.UTF_8);
+        request = HttpRequest.newBuilder()
+                .uri(URI.create(url + "?from=" + from + "&to=" + to))
+                .GET()
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode(), "Диапазон с верхней границей раньше нижней не отклонён.");
+    }
+}
@@ -0,0 +1,106 @@
+package tracker.server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tracker.controllers.InMemoryTaskManager;
+import tracker.controllers.TaskManager;
+import tracker.model.Task;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTaskManagerSlotsTest {
+    HttpClient client = HttpClient.newHttpClient();
+    URI url = URI.create("http://localhost:8080/slots");
+    TaskManager manager;
+    HttpTaskServer taskServer;
+    Gson gson = HttpTaskServer.getGson();
+
+    public HttpTaskManagerSlotsTest() throws IOException {
+        manager = new InMemoryTaskManager();
+        taskServer = new HttpTaskServer(manager);
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        manager.clearTasks();
+        manager.clearSubtasks();
+        manager.clearEpics();
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    @Test
+    public void testGetFreeSlot() throws IOException, InterruptedException {
+        LocalDateTime startTime = LocalDateTime.now().withSecond(0).withNano(0).plusHours(1);
+        Task task = new Task("Test task 1", "Testing task1", startTime.format(Task.DATE_FORMATTER), 30);
+        manager.addTask(task);
+
+        String notBefore = URLEncoder.encode(startTime.plusMinutes(10).format(Task.DATE_FORMATTER),
+                StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url + "?duration=15&notBefore=" + notBefore))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        JsonObject slot = JsonParser.parseString(response.body()).getAsJsonObject();
+        assertEquals(startTime.plusMinutes(30).format(Task.DATE_FORMATTER), slot.get("startTime").getAsString(),
+                "Запрос GET /slots возвращает занятое время.");
+
+        request = HttpRequest.newBuilder()
+                .uri(url)
+                .GET()
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode(), "Запрос без продолжительности не отклонён.");
+
+        request = HttpRequest.newBuilder()
+                .uri(URI.create(url + "?duration=" + Long.MAX_VALUE))
+                .GET()
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode(), "Запрос с неприемлемо большой продолжительностью не отклонён.");
+
+        request = HttpRequest.newBuilder()
+                .uri(URI.create(url + "?duration=" + Long.MAX_VALUE / 60))
+                .GET()
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode(), "Запрос с неприемлемо большой продолжительностью не отклонён.");
+    }
+
+    @Test
+    public void testAutoPlaceTaskWithoutStartTime() throws IOException, InterruptedException {
+        Task task = new Task("Test task 1", "Testing task1");
+        task.setDuration(30);
+        String taskJson = gson.toJson(task);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks?autoPlace=true"))
+                .POST(HttpRequest.BodyPublishers.ofString(taskJson))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(201, response.statusCode());
+        assertEquals(1, manager.getPrioritizedTasks().size(), "Задаче не назначено время начала.");
+        assertTrue(manager.getTasks().getFirst().getStartTime().isPresent(), "Задаче не назначено время начала.");
+    }
+}
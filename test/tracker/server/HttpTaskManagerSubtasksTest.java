@@ -42,7 +42,6 @@ public class HttpTaskManagerSubtasksTest {
         manager.clearTasks();
         manager.clearSubtasks();
         manager.clearEpics();
-        Task.resetIdentificator();
         taskServer.start();
     }
 
@@ -40,7 +40,6 @@ public class HttpTaskManagerTasksTest {
         manager.clearTasks();
         manager.clearSubtasks();
         manager.clearEpics();
-        Task.resetIdentificator();
         taskServer.start();
     }
 
@@ -0,0 +1,93 @@
+package tracker.store;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tracker.model.Subtask;
+import tracker.model.Task;
+import tracker.model.TaskStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystemException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BTreeTaskStoreTest {
+    private File file;
+    private BTreeTaskStore store;
+
+    @BeforeEach
+    void createStore() throws IOException {
+        file = File.createTempFile("store", ".db");
+        store = new BTreeTaskStore(file, 16);
+    }
+
+    @Test
+    void shouldKeepRecordsInIdOrderWithSmallCache() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0);
+        for (int id = 20_000; id > 0; id--) {
+            store.put(new Task("Задача" + id, "Описание задачи " + id, id, TaskStatus.NEW,
+                    start.plusMinutes(id * 10L), Duration.ofMinutes(5)));
+        }
+        for (int id = 2; id <= 20_000; id += 2) {
+            store.remove(id);
+        }
+        assertTrue(store.getCachedPages() <= 16, "Кэш страниц превысил заданный размер.");
+        store.close();
+
+        store = new BTreeTaskStore(file, 16);
+        assertEquals(10_000, store.size(), "Количество записей не сохранено.");
+        assertNull(store.get(2), "Удалённая запись найдена.");
+        Task task = store.get(777);
+        assertEquals("Задача777", task.getName(), "Запись прочитана неверно.");
+        assertEquals(start.plusMinutes(7770), task.getStartTime().get(), "Время начала прочитано неверно.");
+        List<Integer> ids = new ArrayList<>();
+        store.forEach(stored -> ids.add(stored.getId()));
+        assertEquals(10_000, ids.size(), "Перебраны не все записи.");
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1) < ids.get(i), "Записи перебираются не по возрастанию ID.");
+        }
+    }
+
+    @Test
+    void shouldReopenEmptyStore() {
+        store.close();
+
+        store = new BTreeTaskStore(file, 16);
+        assertEquals(0, store.size(), "В пустом хранилище найдены записи.");
+        List<Task> tasks = new ArrayList<>();
+        store.forEach(tasks::add);
+        assertTrue(tasks.isEmpty(), "В пустом хранилище перебраны записи.");
+    }
+
+    @Test
+    void shouldStoreLargeRecordsOnOverflowPages() {
+        String description = "Длинное описание ".repeat(2_000);
+        store.put(new Subtask("Подзадача", description, 1, 2, TaskStatus.DONE, null, null));
+        store.put(new Task("Задача", "Описание", 3, TaskStatus.NEW, null, null));
+        assertEquals(description, store.get(2).getDescription(), "Большая запись прочитана неверно.");
+        long pages = pagesOf(file);
+
+        store.put(new Subtask("Подзадача", description, 1, 2, TaskStatus.NEW, null, null));
+        store.flush();
+        assertEquals(pages, pagesOf(file), "Страницы продолжения прежней записи не использованы повторно.");
+        assertEquals(TaskStatus.NEW, store.get(2).getStatus(), "Большая запись не обновлена.");
+    }
+
+    private static long pagesOf(File file) {
+        return (file.length() + BTreeTaskStore.PAGE_SIZE - 1) / BTreeTaskStore.PAGE_SIZE;
+    }
+
+    @AfterEach
+    void deleteFile() throws FileSystemException {
+        store.close();
+        if (!file.delete()) {
+            throw new FileSystemException("Не удалось удалить временный файл '" + file.getAbsolutePath() + "'");
+        }
+    }
+}
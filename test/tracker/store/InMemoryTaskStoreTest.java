@@ -0,0 +1,50 @@
+package tracker.store;
+
+import org.junit.jupiter.api.Test;
+import tracker.model.Epic;
+import tracker.model.Subtask;
+import tracker.model.Task;
+import tracker.model.TaskType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryTaskStoreTest {
+    private final InMemoryTaskStore store = new InMemoryTaskStore();
+
+    @Test
+    void shouldIterateRecordsOfAllTypesInIdOrder() {
+        for (int id = 300; id > 0; id--) {
+            switch (id % 3) {
+                case 0 -> store.put(new Task("Задача" + id, "Описание задачи " + id, id));
+                case 1 -> store.put(new Epic("Эпик" + id, "Описание эпика " + id, id, "NEW"));
+                default -> store.put(new Subtask("Подзадача" + id, "Описание подзадачи " + id, 1, id));
+            }
+        }
+        store.remove(150);
+        store.remove(151);
+
+        List<Integer> ids = new ArrayList<>();
+        store.forEach(task -> ids.add(task.getId()));
+        assertEquals(298, ids.size(), "Перебраны не все записи.");
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1) < ids.get(i), "Записи перебираются не по возрастанию ID.");
+        }
+        assertEquals(ids, new ArrayList<>(store.map().keySet()), "Ключи всех записей не по возрастанию ID.");
+        assertEquals(298, store.size(), "Неверное количество записей.");
+        assertEquals("Задача3", store.map().get(3).getName(), "Запись не найдена по ID.");
+        assertFalse(store.map().containsKey(150), "Удалённая запись найдена.");
+    }
+
+    @Test
+    void shouldMoveRecordToTableOfItsNewType() {
+        store.put(new Task("Задача", "Описание задачи", 1));
+        store.put(new Epic("Эпик", "Описание эпика", 1, "NEW"));
+
+        assertEquals(1, store.size(), "Запись хранится дважды после смены типа.");
+        assertTrue(store.list(TaskType.TASK).isEmpty(), "Запись осталась в таблице прежнего типа.");
+        assertEquals(TaskType.EPIC, store.get(1).getType(), "Запись не заменена записью нового типа.");
+    }
+}